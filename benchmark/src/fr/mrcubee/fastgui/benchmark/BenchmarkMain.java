@@ -0,0 +1,25 @@
+package fr.mrcubee.fastgui.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/** This class runs the benchmarks with the GC profiler, so that the allocation per operation is reported.
+ * The arguments are the usual JMH command line options (For example a benchmark name pattern).
+ * @author MrCubee
+ * @Contributor Lightnew
+ * @version 1.0
+ * @since 1.0
+ */
+public class BenchmarkMain {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
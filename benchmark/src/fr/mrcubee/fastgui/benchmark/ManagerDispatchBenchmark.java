@@ -0,0 +1,90 @@
+package fr.mrcubee.fastgui.benchmark;
+
+import fr.mrcubee.fastgui.FastGUI;
+import fr.mrcubee.fastgui.benchmark.server.FakePlayer;
+import fr.mrcubee.fastgui.benchmark.server.FakeServer;
+import fr.mrcubee.fastgui.inventory.FastInventory;
+import fr.mrcubee.fastgui.inventory.FastInventoryManager;
+import org.bukkit.Material;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.Plugin;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** This benchmark measures {@link FastInventoryManager#inventoryClickEvent} with a varying number of registered inventories,
+ * for a click in one of them and for a click in an inventory which does not come from the library.
+ * @author MrCubee
+ * @Contributor Lightnew
+ * @version 1.0
+ * @since 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ManagerDispatchBenchmark {
+
+    /**
+     * The number of inventories registered in the manager.
+     */
+    @Param({"10", "100", "1000", "10000"})
+    public int inventoryCount;
+
+    /**
+     * Strong references to the inventories, which the manager only keeps weakly.
+     */
+    private List<FastInventory> inventories;
+    private FastInventoryManager manager;
+    private InventoryClickEvent menuClick;
+    private InventoryClickEvent foreignClick;
+
+    @Setup
+    public void setup() {
+        FakeServer server = FakeServer.install();
+        Plugin plugin = server.createPlugin("ManagerDispatchBenchmark");
+        ItemStack itemStack = new ItemStack(Material.STONE);
+        FakePlayer viewer = server.createPlayer("Viewer");
+        FakePlayer outsider = server.createPlayer("Outsider");
+        FastInventory fastInventory;
+
+        this.manager = FastGUI.getInventoryManager(plugin);
+        this.inventories = new ArrayList<>(this.inventoryCount);
+        for (int i = 0; i < this.inventoryCount; i++) {
+            fastInventory = this.manager.createInventory(3);
+            for (int slot = 0; slot < 9; slot++)
+                fastInventory.createItemButton(slot, itemStack, (button, player) -> {}, event -> {});
+            this.inventories.add(fastInventory);
+        }
+        this.inventories.get(this.inventoryCount - 1).openInventory(viewer.getPlayer(), "Benchmark");
+        this.menuClick = viewer.createClick(4);
+        this.foreignClick = outsider.createClick(4);
+    }
+
+    @Benchmark
+    public boolean menuClick() {
+        this.manager.inventoryClickEvent(this.menuClick);
+        return this.menuClick.isCancelled();
+    }
+
+    @Benchmark
+    public boolean foreignClick() {
+        this.manager.inventoryClickEvent(this.foreignClick);
+        return this.foreignClick.isCancelled();
+    }
+}
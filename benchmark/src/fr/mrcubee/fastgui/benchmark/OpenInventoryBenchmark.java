@@ -0,0 +1,73 @@
+package fr.mrcubee.fastgui.benchmark;
+
+import fr.mrcubee.fastgui.FastGUI;
+import fr.mrcubee.fastgui.benchmark.server.FakePlayer;
+import fr.mrcubee.fastgui.benchmark.server.FakeServer;
+import fr.mrcubee.fastgui.inventory.FastInventory;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/** This benchmark measures {@link FastInventory#openInventory}, which builds the inventory of the player (buildInventory) and opens it.
+ * The player is already viewing the inventory, so each operation also closes the previous one.
+ * @author MrCubee
+ * @Contributor Lightnew
+ * @version 1.0
+ * @since 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OpenInventoryBenchmark {
+
+    /**
+     * The number of item buttons.
+     */
+    @Param({"0", "9", "27", "54"})
+    public int buttonCount;
+
+    /**
+     * The number of those buttons whose item depends on the player.
+     */
+    @Param({"0", "4"})
+    public int customButtonCount;
+
+    private FastInventory fastInventory;
+    private FakePlayer player;
+
+    @Setup
+    public void setup() {
+        FakeServer server = FakeServer.install();
+        ItemStack itemStack = new ItemStack(Material.STONE);
+
+        this.fastInventory = FastGUI.createInventory(server.createPlugin("OpenInventoryBenchmark"), 6);
+        this.fastInventory.fillInventory(new ItemStack(Material.STAINED_GLASS_PANE));
+        for (int slot = 0; slot < this.buttonCount; slot++) {
+            if (slot < this.customButtonCount)
+                this.fastInventory.createCustomItemButton(slot, itemStack, (viewer, item) -> item.setAmount(2), (button, viewer) -> {}, event -> {});
+            else
+                this.fastInventory.createItemButton(slot, itemStack, (button, viewer) -> {}, event -> {});
+        }
+        this.player = server.createPlayer("Viewer");
+    }
+
+    @Benchmark
+    public boolean openInventory() {
+        return this.fastInventory.openInventory(this.player.getPlayer(), "Benchmark");
+    }
+}
@@ -0,0 +1,70 @@
+package fr.mrcubee.fastgui.benchmark;
+
+import fr.mrcubee.fastgui.FastGUI;
+import fr.mrcubee.fastgui.benchmark.server.FakePlayer;
+import fr.mrcubee.fastgui.benchmark.server.FakeServer;
+import fr.mrcubee.fastgui.inventory.FastInventory;
+import org.bukkit.Material;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/** This benchmark measures {@link FastInventory#playerExecute} on every slot of a full inventory,
+ * for a varying number of buttons (the other slots run the default button).
+ * @author MrCubee
+ * @Contributor Lightnew
+ * @version 1.0
+ * @since 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayerExecuteBenchmark {
+
+    /**
+     * The number of buttons.
+     */
+    @Param({"1", "9", "27", "54"})
+    public int buttonCount;
+
+    private FastInventory fastInventory;
+    private FakePlayer player;
+    private InventoryClickEvent event;
+    private int slot;
+
+    @Setup
+    public void setup() {
+        FakeServer server = FakeServer.install();
+        ItemStack itemStack = new ItemStack(Material.STONE);
+
+        this.fastInventory = FastGUI.createInventory(server.createPlugin("PlayerExecuteBenchmark"), 6);
+        for (int i = 0; i < this.buttonCount; i++)
+            this.fastInventory.createItemButton(i, itemStack, (button, viewer) -> {}, event -> {});
+        this.fastInventory.createDefaultButton((button, viewer) -> {}, event -> {});
+        this.player = server.createPlayer("Clicker");
+        this.fastInventory.openInventory(this.player.getPlayer(), "Benchmark");
+        this.event = this.player.createClick(0);
+        this.slot = 0;
+    }
+
+    @Benchmark
+    public boolean playerExecute() {
+        this.slot = this.slot == 53 ? 0 : this.slot + 1;
+        return this.fastInventory.playerExecute(this.event, this.player.getPlayer(), this.slot);
+    }
+}
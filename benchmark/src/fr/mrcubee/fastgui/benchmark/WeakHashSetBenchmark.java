@@ -0,0 +1,75 @@
+package fr.mrcubee.fastgui.benchmark;
+
+import fr.mrcubee.fastgui.tool.WeakHashSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/** This benchmark measures the operations of {@link WeakHashSet}, a public utility of the library (The registries of the library no longer use it).
+ * @author MrCubee
+ * @Contributor Lightnew
+ * @version 1.0
+ * @since 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WeakHashSetBenchmark {
+
+    /**
+     * The number of elements in the set.
+     */
+    @Param({"16", "1024", "65536"})
+    public int size;
+
+    /**
+     * Strong references to the elements, so that they stay in the set.
+     */
+    private Object[] elements;
+    private WeakHashSet<Object> set;
+    private Object extra;
+    private int index;
+
+    @Setup
+    public void setup() {
+        this.elements = new Object[this.size];
+        this.set = new WeakHashSet<>();
+        for (int i = 0; i < this.size; i++) {
+            this.elements[i] = new Object();
+            this.set.add(this.elements[i]);
+        }
+        this.extra = new Object();
+        this.index = 0;
+    }
+
+    @Benchmark
+    public boolean contains() {
+        this.index = this.index + 1 == this.size ? 0 : this.index + 1;
+        return this.set.contains(this.elements[this.index]);
+    }
+
+    @Benchmark
+    public boolean addRemove() {
+        return this.set.add(this.extra) && this.set.remove(this.extra);
+    }
+
+    @Benchmark
+    public void iterate(Blackhole blackhole) {
+        for (Object element : this.set)
+            blackhole.consume(element);
+    }
+}
@@ -0,0 +1,89 @@
+package fr.mrcubee.fastgui.benchmark.server;
+
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
+import org.bukkit.inventory.ItemStack;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/** This class is an in-memory stand-in of a Bukkit inventory. Items are stored by reference, without the copy done by a real server.
+ * @author MrCubee
+ * @Contributor Lightnew
+ * @version 1.0
+ * @since 1.0
+ */
+final class FakeInventory implements InvocationHandler {
+
+    private final ItemStack[] contents;
+    private final InventoryHolder holder;
+    private final String title;
+    private final InventoryType type;
+    private final List<HumanEntity> viewers;
+
+    private FakeInventory(int size, InventoryHolder holder, String title, InventoryType type) {
+        this.contents = new ItemStack[size];
+        this.holder = holder;
+        this.title = title;
+        this.type = type;
+        this.viewers = new ArrayList<>();
+    }
+
+    /** Create an inventory.
+     * @since 1.0
+     * @param inventoryClass The inventory interface to implement.
+     * @param size The number of slots.
+     * @param holder The holder of the inventory.
+     * @param title The title of the inventory.
+     * @param type The type of the inventory.
+     * @param <T> The type of the inventory interface.
+     * @return Returns the created inventory.
+     */
+    static <T extends Inventory> T create(Class<T> inventoryClass, int size, InventoryHolder holder, String title, InventoryType type) {
+        return Fakes.proxy(inventoryClass, new FakeInventory(size, holder, title, type));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "getSize":
+                return this.contents.length;
+            case "getMaxStackSize":
+                return 64;
+            case "getName":
+            case "getTitle":
+                return this.title;
+            case "getType":
+                return this.type;
+            case "getHolder":
+                return this.holder;
+            case "getViewers":
+                return this.viewers;
+            case "getItem":
+                return this.contents[(Integer) args[0]];
+            case "setItem":
+                this.contents[(Integer) args[0]] = (ItemStack) args[1];
+                return null;
+            case "getContents":
+                return this.contents.clone();
+            case "setContents":
+                System.arraycopy((ItemStack[]) args[0], 0, this.contents, 0, Math.min(this.contents.length, ((ItemStack[]) args[0]).length));
+                return null;
+            case "clear":
+                if (args == null)
+                    Arrays.fill(this.contents, null);
+                else
+                    this.contents[(Integer) args[0]] = null;
+                return null;
+            case "iterator":
+                return Arrays.asList(this.contents).listIterator();
+            default:
+                return Fakes.defaultValue(proxy, method, args, "FakeInventory{" + this.title + "}");
+        }
+    }
+}
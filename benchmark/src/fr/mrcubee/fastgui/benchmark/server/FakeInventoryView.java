@@ -0,0 +1,45 @@
+package fr.mrcubee.fastgui.benchmark.server;
+
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryView;
+
+/** This class is an in-memory stand-in of the view of a player on an inventory.
+ * @author MrCubee
+ * @Contributor Lightnew
+ * @version 1.0
+ * @since 1.0
+ */
+final class FakeInventoryView extends InventoryView {
+
+    private final Inventory topInventory;
+    private final Inventory bottomInventory;
+    private final HumanEntity player;
+
+    FakeInventoryView(Inventory topInventory, Inventory bottomInventory, HumanEntity player) {
+        this.topInventory = topInventory;
+        this.bottomInventory = bottomInventory;
+        this.player = player;
+    }
+
+    @Override
+    public Inventory getTopInventory() {
+        return this.topInventory;
+    }
+
+    @Override
+    public Inventory getBottomInventory() {
+        return this.bottomInventory;
+    }
+
+    @Override
+    public HumanEntity getPlayer() {
+        return this.player;
+    }
+
+    @Override
+    public InventoryType getType() {
+        return this.topInventory.getType();
+    }
+}
@@ -0,0 +1,181 @@
+package fr.mrcubee.fastgui.benchmark.server;
+
+import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.ClickType;
+import org.bukkit.event.inventory.InventoryAction;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryView;
+import org.bukkit.inventory.PlayerInventory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/** This class is an in-memory stand-in of a connected player. The player opens and closes inventories like on a real server,
+ * including the close events fired when another inventory is opened.
+ * @author MrCubee
+ * @Contributor Lightnew
+ * @version 1.0
+ * @since 1.0
+ */
+public final class FakePlayer implements InvocationHandler {
+
+    private final FakeServer server;
+    private final UUID uniqueId;
+    private final String name;
+    private final Player player;
+    private final PlayerInventory playerInventory;
+    private final InventoryView craftingView;
+    private final Set<String> permissions;
+    private InventoryView openView;
+    private boolean online;
+
+    FakePlayer(FakeServer server, UUID uniqueId, String name) {
+        this.server = server;
+        this.uniqueId = uniqueId;
+        this.name = name;
+        this.player = Fakes.proxy(Player.class, this);
+        this.playerInventory = FakeInventory.create(PlayerInventory.class, 36, this.player, "container.inventory", InventoryType.PLAYER);
+        this.craftingView = new FakeInventoryView(FakeInventory.create(Inventory.class, 5, this.player, "container.crafting", InventoryType.CRAFTING),
+                this.playerInventory, this.player);
+        this.permissions = new HashSet<>();
+        this.openView = this.craftingView;
+        this.online = true;
+    }
+
+    /** Give the Bukkit player.
+     * @since 1.0
+     * @return Returns the player.
+     */
+    public Player getPlayer() {
+        return this.player;
+    }
+
+    /** Give the unique id of the player.
+     * @since 1.0
+     * @return Returns the unique id.
+     */
+    public UUID getUniqueId() {
+        return this.uniqueId;
+    }
+
+    /** Give the view currently open by the player.
+     * @since 1.0
+     * @return Returns the open view (The crafting view if no inventory is open).
+     */
+    public InventoryView getOpenView() {
+        return this.openView;
+    }
+
+    /** Check if the player is viewing another inventory than his own.
+     * @since 1.0
+     * @return Returns true if an inventory is open, otherwise returns false.
+     */
+    public boolean hasInventoryOpen() {
+        return this.openView != this.craftingView;
+    }
+
+    /** Give a permission to the player.
+     * @since 1.0
+     * @param permission The permission.
+     */
+    public void addPermission(String permission) {
+        this.permissions.add(permission);
+    }
+
+    /** Create a left click on a raw slot of the open view, without dispatching it.
+     * @since 1.0
+     * @param rawSlot The raw slot.
+     * @return Returns the click event.
+     */
+    public InventoryClickEvent createClick(int rawSlot) {
+        return new InventoryClickEvent(this.openView, InventoryType.SlotType.CONTAINER, rawSlot, ClickType.LEFT, InventoryAction.PICKUP_ALL);
+    }
+
+    /** Left click on a raw slot of the open view, dispatching the event to the listeners.
+     * @since 1.0
+     * @param rawSlot The raw slot.
+     * @return Returns the dispatched click event.
+     */
+    public InventoryClickEvent click(int rawSlot) {
+        InventoryClickEvent event = createClick(rawSlot);
+
+        this.server.getPluginManager().callEvent(event);
+        return event;
+    }
+
+    /** Close the open inventory, dispatching the close event to the listeners.
+     * @since 1.0
+     */
+    public void closeInventory() {
+        InventoryView view = this.openView;
+
+        if (view == this.craftingView)
+            return;
+        this.server.getPluginManager().callEvent(new InventoryCloseEvent(view));
+        view.getTopInventory().getViewers().remove(this.player);
+        if (this.openView == view)
+            this.openView = this.craftingView;
+    }
+
+    /** Disconnect the player, dispatching the close and quit events to the listeners.
+     * @since 1.0
+     */
+    public void quit() {
+        if (!this.online)
+            return;
+        closeInventory();
+        this.server.getPluginManager().callEvent(new PlayerQuitEvent(this.player, null));
+        this.online = false;
+        this.server.removePlayer(this);
+    }
+
+    private InventoryView openInventory(Inventory inventory) {
+        InventoryView view;
+
+        closeInventory();
+        view = new FakeInventoryView(inventory, this.playerInventory, this.player);
+        inventory.getViewers().add(this.player);
+        this.openView = view;
+        return view;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "getUniqueId":
+                return this.uniqueId;
+            case "getName":
+            case "getDisplayName":
+            case "getPlayerListName":
+                return this.name;
+            case "getOpenInventory":
+                return this.openView;
+            case "getInventory":
+                return this.playerInventory;
+            case "openInventory":
+                if (args[0] instanceof Inventory)
+                    return openInventory((Inventory) args[0]);
+                break;
+            case "closeInventory":
+                closeInventory();
+                return null;
+            case "hasPermission":
+                return args[0] instanceof String && this.permissions.contains(args[0]);
+            case "isPermissionSet":
+                return args[0] instanceof String && this.permissions.contains(args[0]);
+            case "isOnline":
+            case "isValid":
+                return this.online;
+            default:
+                break;
+        }
+        return Fakes.defaultValue(proxy, method, args, "FakePlayer{" + this.name + "}");
+    }
+}
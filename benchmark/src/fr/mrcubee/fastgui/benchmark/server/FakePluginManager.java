@@ -0,0 +1,153 @@
+package fr.mrcubee.fastgui.benchmark.server;
+
+import org.bukkit.event.Cancellable;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.server.PluginDisableEvent;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginManager;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/** This class is an in-memory stand-in of the Bukkit plugin manager: it registers the listeners and dispatches the events to them,
+ * by priority, like a real server.
+ * @author MrCubee
+ * @Contributor Lightnew
+ * @version 1.0
+ * @since 1.0
+ */
+public final class FakePluginManager implements InvocationHandler {
+
+    private static final MethodType HANDLER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final FakeServer server;
+    private final PluginManager pluginManager;
+    private final List<Registration> registrations;
+
+    FakePluginManager(FakeServer server) {
+        this.server = server;
+        this.pluginManager = Fakes.proxy(PluginManager.class, this);
+        this.registrations = new ArrayList<>();
+    }
+
+    /** Give the Bukkit plugin manager.
+     * @since 1.0
+     * @return Returns the plugin manager.
+     */
+    public PluginManager getPluginManager() {
+        return this.pluginManager;
+    }
+
+    /** Give the number of registered event handlers.
+     * @since 1.0
+     * @return Returns the number of handlers.
+     */
+    public synchronized int getHandlerCount() {
+        return this.registrations.size();
+    }
+
+    /** Register the event handlers of a listener.
+     * @since 1.0
+     * @param listener The listener.
+     * @param plugin The plugin owning the listener.
+     */
+    public synchronized void registerEvents(Listener listener, Plugin plugin) {
+        EventHandler eventHandler;
+
+        for (Method method : listener.getClass().getMethods()) {
+            eventHandler = method.getAnnotation(EventHandler.class);
+            if (eventHandler == null || method.getParameterCount() != 1 || !Event.class.isAssignableFrom(method.getParameterTypes()[0]))
+                continue;
+            try {
+                this.registrations.add(new Registration(plugin, listener, method.getParameterTypes()[0], eventHandler,
+                        MethodHandles.publicLookup().unreflect(method).asType(HANDLER_TYPE)));
+            } catch (IllegalAccessException exception) {
+                throw new IllegalStateException(exception);
+            }
+        }
+        this.registrations.sort(Comparator.comparingInt(registration -> registration.eventHandler.priority().ordinal()));
+    }
+
+    /** Dispatch an event to the registered handlers, on the calling thread.
+     * @since 1.0
+     * @param event The event.
+     */
+    public void callEvent(Event event) {
+        Registration[] registrations;
+
+        synchronized (this) {
+            registrations = this.registrations.toArray(new Registration[0]);
+        }
+        for (Registration registration : registrations) {
+            if (!registration.eventClass.isInstance(event))
+                continue;
+            if (registration.eventHandler.ignoreCancelled() && event instanceof Cancellable && ((Cancellable) event).isCancelled())
+                continue;
+            try {
+                registration.handler.invokeExact((Object) registration.listener, (Object) event);
+            } catch (RuntimeException | Error exception) {
+                throw exception;
+            } catch (Throwable throwable) {
+                throw new IllegalStateException(throwable);
+            }
+        }
+    }
+
+    /** Disable a plugin: fire the disable event, then unregister its handlers and cancel its tasks.
+     * @since 1.0
+     * @param plugin The plugin.
+     */
+    public void disablePlugin(Plugin plugin) {
+        callEvent(new PluginDisableEvent(plugin));
+        synchronized (this) {
+            this.registrations.removeIf(registration -> registration.plugin == plugin);
+        }
+        this.server.getFakeScheduler().cancelTasks(plugin);
+        this.server.setPluginEnabled(plugin, false);
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "registerEvents":
+                registerEvents((Listener) args[0], (Plugin) args[1]);
+                return null;
+            case "callEvent":
+                callEvent((Event) args[0]);
+                return null;
+            case "disablePlugin":
+                disablePlugin((Plugin) args[0]);
+                return null;
+            default:
+                return Fakes.defaultValue(proxy, method, args, "FakePluginManager");
+        }
+    }
+
+    /**
+     * A registered event handler.
+     */
+    private static final class Registration {
+
+        private final Plugin plugin;
+        private final Listener listener;
+        private final Class<?> eventClass;
+        private final EventHandler eventHandler;
+        private final MethodHandle handler;
+
+        private Registration(Plugin plugin, Listener listener, Class<?> eventClass, EventHandler eventHandler, MethodHandle handler) {
+            this.plugin = plugin;
+            this.listener = listener;
+            this.eventClass = eventClass;
+            this.eventHandler = eventHandler;
+            this.handler = handler;
+        }
+    }
+}
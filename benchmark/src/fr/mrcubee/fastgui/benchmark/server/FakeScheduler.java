@@ -0,0 +1,172 @@
+package fr.mrcubee.fastgui.benchmark.server;
+
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/** This class is an in-memory stand-in of the Bukkit scheduler. Synchronous tasks run when {@link #tick()} is called.
+ * Tasks may be scheduled from any thread.
+ * @author MrCubee
+ * @Contributor Lightnew
+ * @version 1.0
+ * @since 1.0
+ */
+public final class FakeScheduler implements InvocationHandler {
+
+    private final BukkitScheduler scheduler;
+    private final List<Task> tasks;
+    private long currentTick;
+    private int nextTaskId;
+
+    FakeScheduler() {
+        this.scheduler = Fakes.proxy(BukkitScheduler.class, this);
+        this.tasks = new ArrayList<>();
+        this.currentTick = 0L;
+        this.nextTaskId = 1;
+    }
+
+    /** Give the Bukkit scheduler.
+     * @since 1.0
+     * @return Returns the scheduler.
+     */
+    public BukkitScheduler getScheduler() {
+        return this.scheduler;
+    }
+
+    /** Give the number of ticks run.
+     * @since 1.0
+     * @return Returns the current tick.
+     */
+    public synchronized long getCurrentTick() {
+        return this.currentTick;
+    }
+
+    /** Give the number of scheduled tasks.
+     * @since 1.0
+     * @return Returns the number of tasks.
+     */
+    public synchronized int getTaskCount() {
+        return this.tasks.size();
+    }
+
+    /** Run a server tick: every synchronous task due runs on the calling thread.
+     * @since 1.0
+     */
+    public void tick() {
+        List<Task> due = new ArrayList<>();
+        Iterator<Task> iterator;
+        Task task;
+
+        synchronized (this) {
+            this.currentTick++;
+            iterator = this.tasks.iterator();
+            while (iterator.hasNext()) {
+                task = iterator.next();
+                if (task.cancelled) {
+                    iterator.remove();
+                } else if (task.nextTick <= this.currentTick) {
+                    due.add(task);
+                    if (task.period <= 0)
+                        iterator.remove();
+                    else
+                        task.nextTick = this.currentTick + task.period;
+                }
+            }
+        }
+        for (Task dueTask : due)
+            if (!dueTask.cancelled)
+                dueTask.runnable.run();
+    }
+
+    /** Cancel the tasks of a plugin.
+     * @since 1.0
+     * @param plugin The plugin.
+     */
+    public synchronized void cancelTasks(Plugin plugin) {
+        for (Task task : this.tasks)
+            if (task.plugin == plugin)
+                task.cancelled = true;
+    }
+
+    private synchronized BukkitTask schedule(Plugin plugin, Runnable runnable, long delay, long period) {
+        Task task = new Task(this.nextTaskId++, plugin, runnable, this.currentTick + Math.max(1L, delay), period);
+
+        this.tasks.add(task);
+        return task.bukkitTask;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "runTask":
+                return schedule((Plugin) args[0], (Runnable) args[1], 0L, 0L);
+            case "runTaskLater":
+                return schedule((Plugin) args[0], (Runnable) args[1], (Long) args[2], 0L);
+            case "runTaskTimer":
+                return schedule((Plugin) args[0], (Runnable) args[1], (Long) args[2], Math.max(1L, (Long) args[3]));
+            case "runTaskAsynchronously":
+                ForkJoinPool.commonPool().execute((Runnable) args[1]);
+                return null;
+            case "cancelTasks":
+                cancelTasks((Plugin) args[0]);
+                return null;
+            case "cancelTask":
+                synchronized (this) {
+                    for (Task task : this.tasks)
+                        if (task.id == (Integer) args[0])
+                            task.cancelled = true;
+                }
+                return null;
+            default:
+                return Fakes.defaultValue(proxy, method, args, "FakeScheduler");
+        }
+    }
+
+    /**
+     * A scheduled task.
+     */
+    private static final class Task implements InvocationHandler {
+
+        private final int id;
+        private final Plugin plugin;
+        private final Runnable runnable;
+        private final long period;
+        private final BukkitTask bukkitTask;
+        private long nextTick;
+        private volatile boolean cancelled;
+
+        private Task(int id, Plugin plugin, Runnable runnable, long nextTick, long period) {
+            this.id = id;
+            this.plugin = plugin;
+            this.runnable = runnable;
+            this.nextTick = nextTick;
+            this.period = period;
+            this.bukkitTask = Fakes.proxy(BukkitTask.class, this);
+            this.cancelled = false;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            switch (method.getName()) {
+                case "getTaskId":
+                    return this.id;
+                case "getOwner":
+                    return this.plugin;
+                case "isSync":
+                    return true;
+                case "cancel":
+                    this.cancelled = true;
+                    return null;
+                default:
+                    return Fakes.defaultValue(proxy, method, args, "FakeTask{" + this.id + "}");
+            }
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package fr.mrcubee.fastgui.benchmark.server;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/** This class is an in-memory stand-in of a Bukkit server, installed as the server of {@link Bukkit}.
+ * It creates fake plugins and players, dispatches events and runs ticks on demand.
+ * @author MrCubee
+ * @Contributor Lightnew
+ * @version 1.0
+ * @since 1.0
+ */
+public final class FakeServer implements InvocationHandler {
+
+    private static FakeServer instance;
+
+    private final Server server;
+    private final Logger logger;
+    private final FakePluginManager pluginManager;
+    private final FakeScheduler scheduler;
+    private final Map<UUID, FakePlayer> players;
+    private final Set<Plugin> enabledPlugins;
+    private final File dataFolder;
+
+    private FakeServer() {
+        this.server = Fakes.proxy(Server.class, this);
+        this.logger = Logger.getLogger("FakeServer");
+        this.pluginManager = new FakePluginManager(this);
+        this.scheduler = new FakeScheduler();
+        this.players = new ConcurrentHashMap<>();
+        this.enabledPlugins = ConcurrentHashMap.newKeySet();
+        this.dataFolder = new File(System.getProperty("java.io.tmpdir"), "fastgui-fake-server");
+    }
+
+    /** Install the fake server as the server of {@link Bukkit}, once per virtual machine.
+     * @since 1.0
+     * @return Returns the fake server.
+     */
+    public static synchronized FakeServer install() {
+        if (instance == null) {
+            instance = new FakeServer();
+            Bukkit.setServer(instance.server);
+        }
+        return instance;
+    }
+
+    /** Give the Bukkit server.
+     * @since 1.0
+     * @return Returns the server.
+     */
+    public Server getServer() {
+        return this.server;
+    }
+
+    /** Give the fake plugin manager, to dispatch events.
+     * @since 1.0
+     * @return Returns the plugin manager.
+     */
+    public FakePluginManager getPluginManager() {
+        return this.pluginManager;
+    }
+
+    /** Give the fake scheduler, to run ticks.
+     * @since 1.0
+     * @return Returns the scheduler.
+     */
+    public FakeScheduler getFakeScheduler() {
+        return this.scheduler;
+    }
+
+    /** Run a server tick.
+     * @since 1.0
+     */
+    public void tick() {
+        this.scheduler.tick();
+    }
+
+    /** Create an enabled plugin.
+     * @since 1.0
+     * @param name The name of the plugin.
+     * @return Returns the plugin.
+     */
+    public Plugin createPlugin(String name) {
+        Logger pluginLogger = Logger.getLogger(name);
+        File pluginFolder = new File(this.dataFolder, name);
+        Plugin[] plugin = new Plugin[1];
+
+        plugin[0] = Fakes.proxy(Plugin.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getServer":
+                    return this.server;
+                case "getName":
+                    return name;
+                case "getLogger":
+                    return pluginLogger;
+                case "isEnabled":
+                    return this.enabledPlugins.contains(plugin[0]);
+                case "getDataFolder":
+                    return pluginFolder;
+                default:
+                    return Fakes.defaultValue(proxy, method, args, "FakePlugin{" + name + "}");
+            }
+        });
+        this.enabledPlugins.add(plugin[0]);
+        return plugin[0];
+    }
+
+    /** Connect a new player, dispatching the join event to the listeners.
+     * @since 1.0
+     * @param name The name of the player.
+     * @return Returns the player.
+     */
+    public FakePlayer createPlayer(String name) {
+        FakePlayer player = new FakePlayer(this, UUID.randomUUID(), name);
+
+        this.players.put(player.getUniqueId(), player);
+        this.pluginManager.callEvent(new PlayerJoinEvent(player.getPlayer(), null));
+        return player;
+    }
+
+    /** Give the number of connected players.
+     * @since 1.0
+     * @return Returns the number of players.
+     */
+    public int getPlayerCount() {
+        return this.players.size();
+    }
+
+    void removePlayer(FakePlayer player) {
+        this.players.remove(player.getUniqueId());
+    }
+
+    void setPluginEnabled(Plugin plugin, boolean enabled) {
+        if (enabled)
+            this.enabledPlugins.add(plugin);
+        else
+            this.enabledPlugins.remove(plugin);
+    }
+
+    private Player getPlayer(Object key) {
+        FakePlayer player = null;
+
+        if (key instanceof UUID) {
+            player = this.players.get(key);
+        } else if (key instanceof String) {
+            for (FakePlayer candidate : this.players.values())
+                if (candidate.getPlayer().getName().equalsIgnoreCase((String) key))
+                    player = candidate;
+        }
+        return player == null ? null : player.getPlayer();
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        ArrayList<Player> onlinePlayers;
+
+        switch (method.getName()) {
+            case "getLogger":
+                return this.logger;
+            case "getName":
+                return "FakeServer";
+            case "getVersion":
+                return "1.0";
+            case "getBukkitVersion":
+                return "1.8.8-R0.1-SNAPSHOT";
+            case "isPrimaryThread":
+                return true;
+            case "getPluginManager":
+                return this.pluginManager.getPluginManager();
+            case "getScheduler":
+                return this.scheduler.getScheduler();
+            case "getPlayer":
+                return getPlayer(args[0]);
+            case "getOnlinePlayers":
+                onlinePlayers = new ArrayList<>();
+                for (FakePlayer player : this.players.values())
+                    onlinePlayers.add(player.getPlayer());
+                return onlinePlayers;
+            case "createInventory":
+                if (args[1] instanceof Integer)
+                    return FakeInventory.create(Inventory.class, (Integer) args[1], (InventoryHolder) args[0],
+                            args.length > 2 ? (String) args[2] : "container.chest", InventoryType.CHEST);
+                break;
+            default:
+                break;
+        }
+        return Fakes.defaultValue(proxy, method, args, "FakeServer");
+    }
+}
@@ -0,0 +1,73 @@
+package fr.mrcubee.fastgui.benchmark.server;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/** This class gathers the helpers shared by the in-memory stand-ins of the Bukkit API.
+ * @author MrCubee
+ * @Contributor Lightnew
+ * @version 1.0
+ * @since 1.0
+ */
+final class Fakes {
+
+    private Fakes() {
+    }
+
+    /** Create a proxy implementing a Bukkit interface.
+     * @since 1.0
+     * @param type The interface to implement.
+     * @param handler The handler of the calls.
+     * @param <T> The type of the interface.
+     * @return Returns the proxy.
+     */
+    static <T> T proxy(Class<T> type, java.lang.reflect.InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(Fakes.class.getClassLoader(), new Class<?>[] {type}, handler));
+    }
+
+    /** Answer a call that the stand-in does not implement: identity for the Object methods, otherwise the zero value of the return type.
+     * @since 1.0
+     * @param proxy The proxy called.
+     * @param method The method called.
+     * @param args The arguments of the call.
+     * @param name The name displayed by toString.
+     * @return Returns the default answer.
+     */
+    static Object defaultValue(Object proxy, Method method, Object[] args, String name) {
+        Class<?> type = method.getReturnType();
+
+        switch (method.getName()) {
+            case "equals":
+                if (args != null && args.length == 1)
+                    return proxy == args[0];
+                break;
+            case "hashCode":
+                if (args == null)
+                    return System.identityHashCode(proxy);
+                break;
+            case "toString":
+                if (args == null)
+                    return name;
+                break;
+            default:
+                break;
+        }
+        if (!type.isPrimitive() || type == void.class)
+            return null;
+        if (type == boolean.class)
+            return false;
+        if (type == char.class)
+            return '\0';
+        if (type == byte.class)
+            return (byte) 0;
+        if (type == short.class)
+            return (short) 0;
+        if (type == int.class)
+            return 0;
+        if (type == long.class)
+            return 0L;
+        if (type == float.class)
+            return 0F;
+        return 0D;
+    }
+}
@@ -0,0 +1,113 @@
+package fr.mrcubee.fastgui.simulation;
+
+import fr.mrcubee.fastgui.FastGUI;
+import fr.mrcubee.fastgui.benchmark.server.FakePlayer;
+import fr.mrcubee.fastgui.benchmark.server.FakeServer;
+import fr.mrcubee.fastgui.inventory.FastInventory;
+import fr.mrcubee.fastgui.inventory.FastInventoryManager;
+import fr.mrcubee.fastgui.inventory.ShareMode;
+import org.bukkit.Material;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.Plugin;
+
+import java.lang.management.ManagementFactory;
+
+/** This class checks that the dispatch of a click, from {@link FastInventoryManager#inventoryClickEvent(InventoryClickEvent)}
+ * to the action of the button, allocates nothing once warmed up, on an in-memory server.
+ * The clicks are measured with the allocation counter of the thread, for buttons, default buttons, shared inventories and limited clicks.
+ * Options: --clicks=1000000 (The exit status is 1 if a click allocates).
+ * @author MrCubee
+ * @Contributor Lightnew
+ * @version 1.0
+ * @since 1.0
+ */
+public class ClickAllocationCheck {
+
+    private final int clickCount;
+    private final com.sun.management.ThreadMXBean threadBean;
+    private final FakeServer server;
+    private final FastInventoryManager manager;
+
+    private ClickAllocationCheck(int clickCount) {
+        Plugin plugin;
+
+        this.clickCount = clickCount;
+        this.threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        this.server = FakeServer.install();
+        plugin = this.server.createPlugin("ClickAllocationCheck");
+        this.manager = FastGUI.getInventoryManager(plugin);
+    }
+
+    public static void main(String[] args) {
+        int clickCount = 1000000;
+
+        for (String arg : args) {
+            if (arg.startsWith("--clicks="))
+                clickCount = Integer.parseInt(arg.substring("--clicks=".length()));
+        }
+        System.exit(new ClickAllocationCheck(clickCount).run() ? 0 : 1);
+    }
+
+    /** Run all the checks and print their results.
+     * @since 1.0
+     * @return Returns true if no click allocates, otherwise returns false.
+     */
+    private boolean run() {
+        FastInventory perPlayer = createMenu(ShareMode.PER_PLAYER);
+        FastInventory shared = createMenu(ShareMode.SHARED);
+        FakePlayer player = this.server.createPlayer("PerPlayer");
+        FakePlayer sharedPlayer = this.server.createPlayer("Shared");
+        boolean success = true;
+
+        if (!this.threadBean.isThreadAllocatedMemorySupported()) {
+            System.out.println("The allocation counter of the threads is not supported by this runtime.");
+            return false;
+        }
+        this.threadBean.setThreadAllocatedMemoryEnabled(true);
+        perPlayer.openInventory(player.getPlayer(), "Per player");
+        shared.openInventory(sharedPlayer.getPlayer(), "Shared");
+        success &= check("button click", player.createClick(4));
+        success &= check("default button click", player.createClick(13));
+        success &= check("shared button click", sharedPlayer.createClick(4));
+        success &= check("shared default button click", sharedPlayer.createClick(13));
+        perPlayer.getButton(5).setClickCooldown(50L);
+        success &= check("button click with cooldown", player.createClick(5));
+        this.manager.getClickLimiter().setPlayerBudget(20, 50L);
+        success &= check("click with player budget", player.createClick(4));
+        return success;
+    }
+
+    private FastInventory createMenu(ShareMode shareMode) {
+        FastInventory menu = this.manager.createInventory(3);
+        ItemStack buttonItem = new ItemStack(Material.STONE);
+
+        menu.setShareMode(shareMode);
+        for (int slot = 0; slot < 9; slot++)
+            menu.createItemButton(slot, buttonItem, (button, player) -> {}, event -> {});
+        menu.createDefaultButton((button, player) -> {}, event -> {});
+        menu.fillInventory(new ItemStack(Material.STAINED_GLASS_PANE));
+        return menu;
+    }
+
+    /** Dispatch the same click many times and measure the bytes allocated per click, after a warm-up.
+     * @since 1.0
+     * @param name The name of the check.
+     * @param event The click event, dispatched again and again.
+     * @return Returns true if the clicks allocate nothing, otherwise returns false.
+     */
+    private boolean check(String name, InventoryClickEvent event) {
+        long threadId = Thread.currentThread().getId();
+        long before;
+        long allocated;
+
+        for (int i = 0; i < this.clickCount; i++)
+            this.manager.inventoryClickEvent(event);
+        before = this.threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < this.clickCount; i++)
+            this.manager.inventoryClickEvent(event);
+        allocated = this.threadBean.getThreadAllocatedBytes(threadId) - before;
+        System.out.printf("[%s] %s: %.3f bytes/click%n", allocated < this.clickCount ? "OK" : "ALLOCATES", name, (double) allocated / this.clickCount);
+        return allocated < this.clickCount;
+    }
+}
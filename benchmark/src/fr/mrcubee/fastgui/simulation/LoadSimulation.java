@@ -0,0 +1,289 @@
+package fr.mrcubee.fastgui.simulation;
+
+import fr.mrcubee.fastgui.FastGUI;
+import fr.mrcubee.fastgui.benchmark.server.FakePlayer;
+import fr.mrcubee.fastgui.benchmark.server.FakeServer;
+import fr.mrcubee.fastgui.inventory.FastInventory;
+import fr.mrcubee.fastgui.inventory.FastInventoryManager;
+import fr.mrcubee.fastgui.metric.LatencyHistogram;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.Plugin;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/** This class simulates the peak-hour use of the library by thousands of virtual players, on an in-memory server.
+ * The players open, click and close the menus of several plugins, and sometimes quit and come back.
+ * At the end, the players quit, the menus are dropped and the plugins are disabled, then the simulation checks that
+ * the viewers, inventories and inventory managers are collected by the garbage collector.
+ * Options: --players=2000 --plugins=8 --menus=16 --ticks=1200 --seed=42 (The exit status is 1 if a leak is found).
+ * @author MrCubee
+ * @Contributor Lightnew
+ * @version 1.0
+ * @since 1.0
+ */
+public class LoadSimulation {
+
+    private final int playerCount;
+    private final int pluginCount;
+    private final int menuCount;
+    private final int tickCount;
+    private final SplittableRandom random;
+    private final FakeServer server;
+    private final List<Plugin> plugins;
+    private final List<FastInventory> menus;
+    private final List<VirtualPlayer> players;
+    private final LatencyHistogram openLatency;
+    private final LatencyHistogram clickLatency;
+    private final LatencyHistogram closeLatency;
+    private final LatencyHistogram tickLatency;
+    private int nextPlayerId;
+    private long quits;
+
+    private LoadSimulation(Map<String, String> options) {
+        this.playerCount = Integer.parseInt(options.getOrDefault("players", "2000"));
+        this.pluginCount = Integer.parseInt(options.getOrDefault("plugins", "8"));
+        this.menuCount = Integer.parseInt(options.getOrDefault("menus", "16"));
+        this.tickCount = Integer.parseInt(options.getOrDefault("ticks", "1200"));
+        this.random = new SplittableRandom(Long.parseLong(options.getOrDefault("seed", "42")));
+        this.server = FakeServer.install();
+        this.plugins = new ArrayList<>();
+        this.menus = new ArrayList<>();
+        this.players = new ArrayList<>();
+        this.openLatency = new LatencyHistogram();
+        this.clickLatency = new LatencyHistogram();
+        this.closeLatency = new LatencyHistogram();
+        this.tickLatency = new LatencyHistogram();
+        this.nextPlayerId = 0;
+        this.quits = 0;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, String> options = new HashMap<>();
+        int separator;
+
+        for (String arg : args) {
+            separator = arg.indexOf('=');
+            if (arg.startsWith("--") && separator > 2)
+                options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        System.exit(new LoadSimulation(options).run() ? 0 : 1);
+    }
+
+    /** Run the simulation, print the report and check the leaks.
+     * @since 1.0
+     * @return Returns true if no leak is found, otherwise returns false.
+     */
+    private boolean run() throws InterruptedException {
+        long heapBefore;
+        long heapPeak = 0;
+        long start;
+        long elapsed;
+
+        createMenus();
+        for (int i = 0; i < this.playerCount; i++)
+            this.players.add(new VirtualPlayer(this.server.createPlayer(nextPlayerName())));
+        heapBefore = usedHeap(true);
+        start = System.nanoTime();
+        for (int tick = 0; tick < this.tickCount; tick++) {
+            runTick();
+            if (tick % 100 == 0)
+                heapPeak = Math.max(heapPeak, usedHeap(false));
+        }
+        elapsed = System.nanoTime() - start;
+        report(elapsed, heapBefore, Math.max(heapPeak, usedHeap(false)), usedHeap(true));
+        return checkLeaks();
+    }
+
+    private void createMenus() {
+        ItemStack buttonItem = new ItemStack(Material.STONE);
+        ItemStack fillItem = new ItemStack(Material.STAINED_GLASS_PANE);
+        FastInventory menu;
+        Plugin plugin;
+
+        for (int i = 0; i < this.pluginCount; i++) {
+            plugin = this.server.createPlugin("SimulatedPlugin" + i);
+            this.plugins.add(plugin);
+            for (int j = 0; j < this.menuCount; j++) {
+                menu = FastGUI.createInventory(plugin, 1 + j % 6);
+                for (int slot = 1; slot < 9; slot++)
+                    menu.createItemButton(slot, buttonItem, (button, player) -> {}, event -> {});
+                menu.createCustomItemButton(0, buttonItem, (player, item) -> item.setAmount(1 + player.getName().length() % 64),
+                        (button, player) -> {}, event -> {});
+                menu.createDefaultButton((button, player) -> {}, event -> {});
+                menu.fillInventory(fillItem);
+                this.menus.add(menu);
+            }
+        }
+    }
+
+    private void runTick() {
+        long start;
+
+        for (int i = 0; i < this.players.size(); i++)
+            this.players.get(i).step();
+        start = System.nanoTime();
+        this.server.tick();
+        this.tickLatency.record(System.nanoTime() - start);
+    }
+
+    private String nextPlayerName() {
+        return "Player" + this.nextPlayerId++;
+    }
+
+    private void report(long elapsed, long heapBefore, long heapPeak, long heapAfter) {
+        double seconds = elapsed / 1e9;
+        long operations = this.openLatency.getCount() + this.clickLatency.getCount() + this.closeLatency.getCount();
+
+        System.out.printf("FastGUI load simulation: %d players, %d plugins, %d menus, %d ticks, %d quits%n",
+                this.playerCount, this.pluginCount, this.menus.size(), this.tickCount, this.quits);
+        System.out.printf("Duration: %.2f s, throughput: %.0f operations/s%n", seconds, operations / seconds);
+        printLatency("open", this.openLatency);
+        printLatency("click", this.clickLatency);
+        printLatency("close", this.closeLatency);
+        printLatency("tick tasks", this.tickLatency);
+        System.out.printf("Heap: %.1f MiB before, %.1f MiB peak, %.1f MiB after (%+.1f MiB)%n",
+                heapBefore / 1048576.0, heapPeak / 1048576.0, heapAfter / 1048576.0, (heapAfter - heapBefore) / 1048576.0);
+    }
+
+    private static void printLatency(String name, LatencyHistogram histogram) {
+        System.out.printf("%-10s %9d ops  mean %7.2f us  p50 <= %7.2f us  p99 <= %7.2f us  p99.9 <= %7.2f us  max %8.2f us%n",
+                name, histogram.getCount(), histogram.getMeanNanos() / 1e3, histogram.getPercentileNanos(50) / 1e3,
+                histogram.getPercentileNanos(99) / 1e3, histogram.getPercentileNanos(99.9) / 1e3, histogram.getMaxNanos() / 1e3);
+    }
+
+    /** Make everything go away, then check that the garbage collector can collect it.
+     * @since 1.0
+     * @return Returns true if no leak is found, otherwise returns false.
+     */
+    private boolean checkLeaks() throws InterruptedException {
+        List<WeakReference<Object>> playerReferences = new ArrayList<>();
+        List<WeakReference<Object>> menuReferences = new ArrayList<>();
+        List<WeakReference<Object>> managerReferences = new ArrayList<>();
+        List<WeakReference<Object>> pluginReferences = new ArrayList<>();
+        boolean success = true;
+        int viewers = 0;
+
+        for (VirtualPlayer player : this.players) {
+            playerReferences.add(new WeakReference<>(player.player.getPlayer()));
+            player.player.quit();
+        }
+        this.players.clear();
+        for (FastInventory menu : this.menus)
+            viewers += menu.getViewerCount();
+        success &= check("viewers left after all players quit", viewers);
+        for (FastInventory menu : this.menus)
+            menuReferences.add(new WeakReference<>(menu));
+        this.menus.clear();
+        for (Plugin plugin : this.plugins) {
+            managerReferences.add(new WeakReference<>(FastGUI.getInventoryManager(plugin)));
+            pluginReferences.add(new WeakReference<>(plugin));
+            this.server.getPluginManager().disablePlugin(plugin);
+        }
+        this.plugins.clear();
+        collect(playerReferences, menuReferences, managerReferences, pluginReferences);
+        success &= check("players retained", alive(playerReferences));
+        success &= check("inventories retained", alive(menuReferences));
+        success &= check("inventory managers retained", alive(managerReferences));
+        success &= check("plugins retained", alive(pluginReferences));
+        success &= check("entries left in the inventory managers registry", FastGUI.getInventoryManagers().size());
+        return success;
+    }
+
+    private static boolean check(String name, int leaks) {
+        System.out.printf("[%s] %s: %d%n", leaks == 0 ? "OK" : "LEAK", name, leaks);
+        return leaks == 0;
+    }
+
+    @SafeVarargs
+    private static void collect(List<WeakReference<Object>>... references) throws InterruptedException {
+        for (int attempt = 0; attempt < 20; attempt++) {
+            int alive = 0;
+
+            System.gc();
+            TimeUnit.MILLISECONDS.sleep(50);
+            for (List<WeakReference<Object>> list : references)
+                alive += alive(list);
+            if (alive == 0)
+                return;
+        }
+    }
+
+    private static int alive(List<WeakReference<Object>> references) {
+        int alive = 0;
+
+        for (WeakReference<Object> reference : references)
+            if (reference.get() != null)
+                alive++;
+        return alive;
+    }
+
+    private static long usedHeap(boolean collect) throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+
+        if (collect) {
+            System.gc();
+            TimeUnit.MILLISECONDS.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * A virtual player, which opens a menu, clicks a few times, then closes it or quits.
+     */
+    private final class VirtualPlayer {
+
+        private FakePlayer player;
+        private FastInventory menu;
+        private int clicksLeft;
+        private int cooldown;
+
+        private VirtualPlayer(FakePlayer player) {
+            this.player = player;
+            this.menu = null;
+            this.clicksLeft = 0;
+            this.cooldown = random.nextInt(40);
+        }
+
+        private void step() {
+            long start;
+
+            if (this.cooldown > 0) {
+                this.cooldown--;
+                return;
+            }
+            if (this.menu == null) {
+                this.menu = menus.get(random.nextInt(menus.size()));
+                start = System.nanoTime();
+                this.menu.openInventory(this.player.getPlayer(), "Menu");
+                openLatency.record(System.nanoTime() - start);
+                this.clicksLeft = 1 + random.nextInt(8);
+                this.cooldown = random.nextInt(10);
+            } else if (this.clicksLeft > 0) {
+                start = System.nanoTime();
+                this.player.click(random.nextInt(this.player.getOpenView().countSlots()));
+                clickLatency.record(System.nanoTime() - start);
+                this.clicksLeft--;
+                this.cooldown = random.nextInt(5);
+            } else if (random.nextInt(20) == 0) {
+                this.player.quit();
+                quits++;
+                this.player = server.createPlayer(nextPlayerName());
+                this.menu = null;
+                this.cooldown = 20 + random.nextInt(100);
+            } else {
+                start = System.nanoTime();
+                this.player.closeInventory();
+                closeLatency.record(System.nanoTime() - start);
+                this.menu = null;
+                this.cooldown = random.nextInt(60);
+            }
+        }
+    }
+}
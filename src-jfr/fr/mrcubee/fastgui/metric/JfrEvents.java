@@ -0,0 +1,112 @@
+package fr.mrcubee.fastgui.metric;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/** This class emits the Java Flight Recorder events of the library.
+ * It is compiled apart from the library by a JDK providing jdk.jfr, and only loaded when the events are enabled (See {@link Metrics#setJfrEnabled(boolean)}).
+ * @author MrCubee
+ * @Contributor Lightnew
+ * @version 1.0
+ * @since 1.0
+ */
+final class JfrEvents implements FlightRecorder {
+
+    JfrEvents() {
+    }
+
+    @Override
+    public void open(String plugin, int inventory, long nanos) {
+        OpenEvent event = new OpenEvent();
+
+        if (!event.shouldCommit())
+            return;
+        event.plugin = plugin;
+        event.inventory = inventory;
+        event.renderTime = nanos;
+        event.commit();
+    }
+
+    @Override
+    public void click(String plugin, int inventory, int slot, long nanos) {
+        ClickEvent event = new ClickEvent();
+
+        if (!event.shouldCommit())
+            return;
+        event.plugin = plugin;
+        event.inventory = inventory;
+        event.slot = slot;
+        event.handlingTime = nanos;
+        event.commit();
+    }
+
+    @Override
+    public void action(String plugin, int inventory, int slot, long nanos) {
+        ActionEvent event = new ActionEvent();
+
+        if (!event.shouldCommit())
+            return;
+        event.plugin = plugin;
+        event.inventory = inventory;
+        event.slot = slot;
+        event.actionTime = nanos;
+        event.commit();
+    }
+
+    @Name("fr.mrcubee.fastgui.Open")
+    @Label("FastGUI Open")
+    @Category("FastGUI")
+    static class OpenEvent extends Event {
+
+        @Label("Plugin")
+        String plugin;
+
+        @Label("Inventory")
+        int inventory;
+
+        @Label("Render Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long renderTime;
+    }
+
+    @Name("fr.mrcubee.fastgui.Click")
+    @Label("FastGUI Click")
+    @Category("FastGUI")
+    static class ClickEvent extends Event {
+
+        @Label("Plugin")
+        String plugin;
+
+        @Label("Inventory")
+        int inventory;
+
+        @Label("Slot")
+        int slot;
+
+        @Label("Handling Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long handlingTime;
+    }
+
+    @Name("fr.mrcubee.fastgui.Action")
+    @Label("FastGUI Action")
+    @Category("FastGUI")
+    static class ActionEvent extends Event {
+
+        @Label("Plugin")
+        String plugin;
+
+        @Label("Inventory")
+        int inventory;
+
+        @Label("Slot")
+        int slot;
+
+        @Label("Action Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long actionTime;
+    }
+}
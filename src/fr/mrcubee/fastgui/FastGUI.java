@@ -2,11 +2,23 @@ package fr.mrcubee.fastgui;
 
 import fr.mrcubee.fastgui.inventory.FastInventory;
 import fr.mrcubee.fastgui.inventory.FastInventoryManager;
+import fr.mrcubee.fastgui.inventory.PageSource;
+import fr.mrcubee.fastgui.inventory.PaginatedInventory;
+import fr.mrcubee.fastgui.menu.MenuRegistry;
+import fr.mrcubee.fastgui.search.ChatPrompt;
+import fr.mrcubee.fastgui.state.PlayerStateStore;
 import org.bukkit.Bukkit;
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.inventory.ItemStack;
 import org.bukkit.plugin.Plugin;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Map;
-import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 
 /** This class is the main class of the library. It brings together useful library methods.
  * @author MrCubee
@@ -16,29 +28,135 @@ import java.util.WeakHashMap;
 public class FastGUI {
 
     /**
-     * The Inventory managers for plugins.
+     * The Inventory managers for plugins, until they are disposed (When their plugin is disabled).
      */
-    private static final Map<Plugin, FastInventoryManager> INVENTORY_MANAGERS = new WeakHashMap<Plugin, FastInventoryManager>();
+    private static final Map<Plugin, FastInventoryManager> INVENTORY_MANAGERS = new ConcurrentHashMap<Plugin, FastInventoryManager>();
 
-    /** Create an inventory.
+    /** Give the inventory manager of a plugin, creating it on first use.
      * @since 1.0
-     * @param line Number of lines that the inventory must have. (Between 1 and 6 inclusive)
-     * @return Returns the created inventory. On error, returns null.
+     * @param plugin The plugin.
+     * @return Returns the inventory manager of the plugin. On error, returns null.
      */
-    public static FastInventory createInventory(Plugin plugin, int line) {
+    public static FastInventoryManager getInventoryManager(Plugin plugin) {
         FastInventoryManager inventoryManager;
 
         if (plugin == null) {
             Bukkit.getLogger().warning("FastGUI library can't find the main plugin class.");
             return null;
-        } else if (line < 1 || line > 6)
-            return null;
+        }
         inventoryManager = INVENTORY_MANAGERS.get(plugin);
         if (inventoryManager == null) {
-            inventoryManager = new FastInventoryManager();
+            if (!plugin.isEnabled())
+                return null;
+            inventoryManager = new FastInventoryManager(plugin);
             plugin.getServer().getPluginManager().registerEvents(inventoryManager, plugin);
             INVENTORY_MANAGERS.put(plugin, inventoryManager);
         }
+        return inventoryManager;
+    }
+
+    /** Unregister a disposed inventory manager (See {@link FastInventoryManager#dispose()}).
+     * @since 1.0
+     * @param inventoryManager The disposed inventory manager.
+     * @return Returns true if the inventory manager was registered, otherwise returns false.
+     */
+    public static boolean removeInventoryManager(FastInventoryManager inventoryManager) {
+        if (inventoryManager == null)
+            return false;
+        return INVENTORY_MANAGERS.remove(inventoryManager.getPlugin(), inventoryManager);
+    }
+
+    /** Give the inventory managers of all the plugins, for example to read their metrics.
+     * @since 1.0
+     * @return Returns a copy of the list of the inventory managers.
+     */
+    public static Collection<FastInventoryManager> getInventoryManagers() {
+        return new ArrayList<>(INVENTORY_MANAGERS.values());
+    }
+
+    /** Create an inventory.
+     * @since 1.0
+     * @param line Number of lines that the inventory must have. (Between 1 and 6 inclusive)
+     * @return Returns the created inventory. On error, returns null.
+     */
+    public static FastInventory createInventory(Plugin plugin, int line) {
+        FastInventoryManager inventoryManager;
+
+        if (line < 1 || line > 6)
+            return null;
+        inventoryManager = getInventoryManager(plugin);
+        if (inventoryManager == null)
+            return null;
         return inventoryManager.createInventory(line);
     }
+
+    /** Create an inventory displaying the entries of a data source page by page.
+     * @since 1.0
+     * @param line Number of lines that the inventory must have. (Between 1 and 6 inclusive)
+     * @param source The data source of the entries.
+     * @param renderer The function giving the item which represents an entry.
+     * @param action The action to be performed when a player clicks on an entry.
+     * @param <T> The type of the entries.
+     * @return Returns the created inventory. On error, returns null.
+     */
+    public static <T> PaginatedInventory<T> createPaginatedInventory(Plugin plugin, int line, PageSource<? extends T> source,
+                                                                     Function<? super T, ItemStack> renderer, BiConsumer<? super T, ? super HumanEntity> action) {
+        FastInventoryManager inventoryManager;
+
+        if (line < 1 || line > 6)
+            return null;
+        inventoryManager = getInventoryManager(plugin);
+        if (inventoryManager == null)
+            return null;
+        return inventoryManager.createPaginatedInventory(line, source, renderer, action);
+    }
+
+    /** Create the registry of the menus defined by the YAML files of a directory.
+     * The menus are only compiled when they are opened for the first time.
+     * @since 1.0
+     * @param directory The directory of the menu files.
+     * @return Returns the created registry. On error, returns null.
+     */
+    public static MenuRegistry createMenuRegistry(Plugin plugin, File directory) {
+        FastInventoryManager inventoryManager = getInventoryManager(plugin);
+        MenuRegistry menuRegistry;
+
+        if (inventoryManager == null || directory == null)
+            return null;
+        menuRegistry = new MenuRegistry(inventoryManager, directory);
+        plugin.getServer().getPluginManager().registerEvents(menuRegistry, plugin);
+        menuRegistry.load();
+        return menuRegistry;
+    }
+
+    /** Create a prompt taking the next chat message of a player as an answer, registered as a listener of the plugin.
+     * @since 1.0
+     * @return Returns the created prompt. On error, returns null.
+     */
+    public static ChatPrompt createChatPrompt(Plugin plugin) {
+        ChatPrompt chatPrompt;
+
+        if (plugin == null || !plugin.isEnabled())
+            return null;
+        chatPrompt = new ChatPrompt(plugin);
+        plugin.getServer().getPluginManager().registerEvents(chatPrompt, plugin);
+        return chatPrompt;
+    }
+
+    /** Create the store of the states of the players of a plugin, used by its inventory manager.
+     * The store previously used by the manager is closed.
+     * @since 1.0
+     * @param directory The directory of the state files.
+     * @return Returns the created store. On error, returns null.
+     */
+    public static PlayerStateStore createStateStore(Plugin plugin, File directory) {
+        FastInventoryManager inventoryManager = getInventoryManager(plugin);
+        PlayerStateStore stateStore;
+
+        if (inventoryManager == null || directory == null)
+            return null;
+        stateStore = new PlayerStateStore(plugin, directory);
+        inventoryManager.setStateStore(stateStore);
+        return stateStore;
+    }
 }
@@ -0,0 +1,147 @@
+package fr.mrcubee.fastgui.inventory;
+
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+
+/** This class represents an item button whose item changes over time, either through a sequence of frames or through a supplier
+ * called at each period (A rotating icon, a countdown...). The item is the same for all players.
+ * The animated buttons of a manager are driven by a single timing wheel, and only while their inventory is viewed.
+ * @author MrCubee
+ * @Contributor Lightnew
+ * @version 1.0
+ * @since 1.0
+ */
+public class AnimatedButton extends ItemButton {
+
+    /**
+     * The frames of the animation, or null if the items are given by the supplier.
+     */
+    private final FrozenItem[] frames;
+
+    /**
+     * The function giving the item of a frame number, or null if the items are given by the frames.
+     */
+    private final LongFunction<? extends ItemStack> supplier;
+
+    /**
+     * The number of ticks between two frames.
+     */
+    private final int period;
+
+    /**
+     * The current frame number (Main thread only).
+     */
+    private long frame;
+
+    /**
+     * The item of the current frame.
+     */
+    private volatile FrozenItem current;
+
+    /**
+     * True if the button is in the timing wheel of its manager.
+     */
+    private final AtomicBoolean scheduled;
+
+    /**
+     * The tick of the timing wheel at which the next frame is displayed (Main thread only).
+     */
+    long deadline;
+
+    /** Create the instance of an animated button displaying a sequence of frames.
+     * @since 1.0
+     * @param fastInventory The inventory where the button is placed.
+     * @param slot The inventory slot where the button is placed.
+     * @param action The action to be performed by the button.
+     * @param frames The frames of the animation (At least one).
+     * @param period The number of ticks between two frames (At least 1).
+     */
+    public AnimatedButton(FastInventory fastInventory, int slot, BiConsumer<? super Button, ? super HumanEntity> action, FrozenItem[] frames, int period, Consumer<? super InventoryClickEvent> event) {
+        super(fastInventory, slot, action, frames[0], event);
+        this.frames = frames.clone();
+        this.supplier = null;
+        this.period = Math.max(1, period);
+        this.frame = 0L;
+        this.current = frames[0];
+        this.scheduled = new AtomicBoolean(false);
+    }
+
+    /** Create the instance of an animated button whose item is given by a supplier at each period.
+     * @since 1.0
+     * @param fastInventory The inventory where the button is placed.
+     * @param slot The inventory slot where the button is placed.
+     * @param action The action to be performed by the button.
+     * @param supplier The function giving the item of a frame number (Starting at 0), called on the main thread.
+     * @param period The number of ticks between two frames (At least 1).
+     */
+    public AnimatedButton(FastInventory fastInventory, int slot, BiConsumer<? super Button, ? super HumanEntity> action, LongFunction<? extends ItemStack> supplier, int period, Consumer<? super InventoryClickEvent> event) {
+        super(fastInventory, slot, action, FrozenItem.of(supplier.apply(0L)), event);
+        this.frames = null;
+        this.supplier = supplier;
+        this.period = Math.max(1, period);
+        this.frame = 0L;
+        this.current = getFrozenItem();
+        this.scheduled = new AtomicBoolean(false);
+    }
+
+    /** Give the item of the current frame, shared by all players.
+     * @since 1.0
+     * @param player The player who wants to have the item.
+     * @return The item of the current frame.
+     */
+    @Override
+    public ItemStack getItemStack(HumanEntity player) {
+        return FrozenItem.unwrap(this.current);
+    }
+
+    /** Give the number of ticks between two frames.
+     * @since 1.0
+     * @return Returns the period in ticks.
+     */
+    public int getPeriod() {
+        return this.period;
+    }
+
+    /** Give the current frame number.
+     * @since 1.0
+     * @return Returns the frame number (Starting at 0).
+     */
+    public long getFrame() {
+        return this.frame;
+    }
+
+    /** Put the button in the timing wheel of its manager, if it is not already in it. Can be called from any thread.
+     * @since 1.0
+     */
+    void schedule() {
+        if (this.scheduled.compareAndSet(false, true))
+            getFastInventory().getManager().scheduleAnimation(this);
+    }
+
+    /** Display the next frame, called by the timing wheel when the period is over (Main thread only).
+     * @since 1.0
+     * @return Returns true to be called again at the next period,
+     * otherwise returns false if the button is removed or its inventory is no longer viewed.
+     */
+    boolean advance() {
+        FastInventory fastInventory = getFastInventory();
+
+        if (fastInventory.isDisposed() || fastInventory.getButton(this.slot) != this || fastInventory.getViewerCount() == 0) {
+            this.scheduled.set(false);
+            return false;
+        }
+        this.frame++;
+        if (this.frames != null)
+            this.current = this.frames[(int) (this.frame % this.frames.length)];
+        else
+            this.current = FrozenItem.of(this.supplier.apply(this.frame));
+        fastInventory.markDirty(1L << this.slot);
+        return true;
+    }
+}
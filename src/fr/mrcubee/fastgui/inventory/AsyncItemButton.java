@@ -0,0 +1,179 @@
+package fr.mrcubee.fastgui.inventory;
+
+import fr.mrcubee.fastgui.metric.Metrics;
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.Plugin;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.logging.Level;
+
+/** This class represents a item button whose action runs outside the main thread.
+ * The result of the action is then given to a callback on the main thread, if the player is still viewing the inventory.
+ * @author MrCubee
+ * @Contributor Lightnew
+ * @version 1.0
+ * @since 1.0
+ * @param <T> The type of the result of the action.
+ */
+public class AsyncItemButton<T> extends ItemButton {
+
+    /**
+     * The action to be performed outside the main thread.
+     */
+    private final BiFunction<? super Button, ? super HumanEntity, ? extends CompletableFuture<? extends T>> asyncAction;
+
+    /**
+     * The callback receiving the result of the action on the main thread.
+     */
+    private final BiConsumer<? super T, ? super HumanEntity> completion;
+
+    /**
+     * True if a player can not click again while his action is pending.
+     */
+    private final boolean lock;
+
+    /**
+     * The item displayed to the player while his action is pending, or null to keep the item of the button (Not displayed in a shared inventory).
+     */
+    private final FrozenItem processingItem;
+
+    /**
+     * The number of pending actions of each player (Read by the renders outside the main thread).
+     */
+    private final Map<UUID, Integer> pendingActions;
+
+    /** Create the instance of an asynchronous item button for a specific inventory.
+     * @since 1.0
+     * @param fastInventory The inventory where the button is placed.
+     * @param slot The inventory slot where the button is placed.
+     * @param itemStack The item that represents the button.
+     * @param asyncAction The action to be performed outside the main thread.
+     * @param completion The callback receiving the result of the action on the main thread.
+     * @param lock True if a player can not click again while his action is pending.
+     * @param processingItem The item displayed while the action is pending, or null to keep the item of the button.
+     */
+    public AsyncItemButton(FastInventory fastInventory, int slot, ItemStack itemStack,
+                           BiFunction<? super Button, ? super HumanEntity, ? extends CompletableFuture<? extends T>> asyncAction,
+                           BiConsumer<? super T, ? super HumanEntity> completion, boolean lock, ItemStack processingItem) {
+        super(fastInventory, slot, null, itemStack, null);
+        this.asyncAction = asyncAction;
+        this.completion = completion;
+        this.lock = lock;
+        this.processingItem = FrozenItem.of(processingItem);
+        this.pendingActions = new ConcurrentHashMap<>();
+    }
+
+    /** Check if the action of a player is pending.
+     * @since 1.0
+     * @param player The player.
+     * @return Returns true if the action is pending, otherwise returns false.
+     */
+    public boolean isPending(HumanEntity player) {
+        return player != null && this.pendingActions.containsKey(player.getUniqueId());
+    }
+
+    /** The item of the button changes for a player while his action is pending, when a processing item is defined.
+     * @since 1.0
+     * @return Returns true if a processing item is defined, otherwise returns false.
+     */
+    @Override
+    public boolean isPlayerDependent() {
+        return this.processingItem != null;
+    }
+
+    /** Give the processing item while an action of the player is pending, otherwise the item of the button.
+     * @since 1.0
+     * @param player The player who wants to have the item.
+     * @return The item requested by the player.
+     */
+    @Override
+    public ItemStack getItemStack(HumanEntity player) {
+        if (this.processingItem != null && isPending(player))
+            return this.processingItem.getItemStack();
+        return super.getItemStack(player);
+    }
+
+    @Override
+    protected void execute(InventoryClickEvent event, HumanEntity humanEntity) {
+        FastInventoryHolder session;
+        CompletableFuture<T> future;
+        long start;
+
+        if (humanEntity == null || this.asyncAction == null)
+            return;
+        if (this.lock && this.pendingActions.containsKey(humanEntity.getUniqueId()))
+            return;
+        this.pendingActions.merge(humanEntity.getUniqueId(), 1, Integer::sum);
+        start = Metrics.start();
+        session = getFastInventory().getSession(humanEntity);
+        if (showsProcessingItem(session))
+            session.getInventory().setItem(this.slot, this.processingItem.getItemStack());
+        try {
+            future = CompletableFuture.supplyAsync(() -> this.asyncAction.apply(this, humanEntity), getFastInventory().getManager().getExecutor())
+                    .thenCompose(result -> result.<T>thenApply(value -> value));
+        } catch (RejectedExecutionException exception) {
+            release(session, humanEntity);
+            getFastInventory().getManager().getPlugin().getLogger().log(Level.WARNING, "FastGUI asynchronous action of the slot " + this.slot + " can't be started.", exception);
+            return;
+        }
+        future.whenComplete((result, throwable) -> {
+            Plugin plugin = getFastInventory().getManager().getPlugin();
+
+            if (plugin.isEnabled())
+                plugin.getServer().getScheduler().runTask(plugin, () -> complete(session, humanEntity, result, throwable));
+        });
+        getFastInventory().getMetrics().recordAction(getMetrics(), this.slot, start);
+    }
+
+    /** Check if the processing item is displayed in a session. It is never displayed in a shared inventory,
+     * where it would be seen by all the viewers.
+     * @since 1.0
+     * @param session The session in which the player clicked.
+     * @return Returns true if the processing item is displayed, otherwise returns false.
+     */
+    private boolean showsProcessingItem(FastInventoryHolder session) {
+        return session != null && this.processingItem != null && !session.isShared();
+    }
+
+    /** End a pending action of a player, then display again the item of the button once he has no more pending action (Main thread only).
+     * @since 1.0
+     * @param session The session in which the player clicked.
+     * @param player The player who clicked.
+     */
+    private void release(FastInventoryHolder session, HumanEntity player) {
+        if (this.pendingActions.computeIfPresent(player.getUniqueId(), (playerId, count) -> count > 1 ? count - 1 : null) != null)
+            return;
+        if (showsProcessingItem(session) && session.getFastInventory() == getFastInventory())
+            session.getInventory().setItem(this.slot, getFastInventory().getItem(this.slot, player));
+    }
+
+    /** Give the result of an action to the callback, if the player is still viewing the inventory (Main thread only).
+     * @since 1.0
+     * @param session The session in which the player clicked.
+     * @param player The player who clicked.
+     * @param result The result of the action.
+     * @param throwable The error of the action, or null if the action succeeded.
+     */
+    private void complete(FastInventoryHolder session, HumanEntity player, T result, Throwable throwable) {
+        release(session, player);
+        if (session == null || session.isClosed() || getFastInventory().getSession(player) != session)
+            return;
+        if (throwable != null) {
+            if (throwable instanceof CompletionException && throwable.getCause() != null)
+                throwable = throwable.getCause();
+            getFastInventory().getManager().getPlugin().getLogger().log(Level.WARNING, "FastGUI asynchronous action of the slot " + this.slot + " failed.", throwable);
+            return;
+        }
+        if (this.completion != null)
+            this.completion.accept(result, player);
+    }
+}
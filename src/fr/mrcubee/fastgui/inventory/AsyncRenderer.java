@@ -0,0 +1,263 @@
+package fr.mrcubee.fastgui.inventory;
+
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.ArrayDeque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+
+/** This class renders the items depending on the player outside the main thread, then applies them on the main thread.
+ * A session has at most one job waiting for the worker pool, the slots to render being merged into it, so the waiting jobs are bounded by the viewers.
+ * The rendering never falls back on the main thread: under load, the placeholders stay displayed until the pool catches up.
+ * @author MrCubee
+ * @Contributor Lightnew
+ * @version 1.0
+ * @since 1.0
+ */
+class AsyncRenderer {
+
+    /**
+     * The manager that owns the renderer.
+     */
+    private final FastInventoryManager manager;
+
+    /**
+     * The maximum number of jobs given to the worker pool at the same time.
+     */
+    private int maxPending;
+
+    /**
+     * The number of jobs given to the worker pool and not yet completed.
+     */
+    private final AtomicInteger pending;
+
+    /**
+     * The number of jobs waiting for a place in the worker pool beyond which the jobs of closed sessions are dropped.
+     */
+    private int maxWaiting;
+
+    /**
+     * The jobs waiting for a place in the worker pool (Main thread only).
+     */
+    private final Queue<Job> waiting;
+
+    /**
+     * The waiting job of each session (Main thread only).
+     */
+    private final Map<FastInventoryHolder, Job> waitingSessions;
+
+    /**
+     * The jobs rendered and waiting to be applied on the main thread.
+     */
+    private final Queue<Job> completed;
+
+    /**
+     * True if the task applying the completed jobs is scheduled.
+     */
+    private final AtomicBoolean applyScheduled;
+
+    /** Create the renderer of a manager.
+     * @since 1.0
+     * @param manager The manager that owns the renderer.
+     * @param maxPending The maximum number of jobs given to the worker pool at the same time.
+     */
+    AsyncRenderer(FastInventoryManager manager, int maxPending) {
+        this.manager = manager;
+        this.maxPending = Math.max(1, maxPending);
+        this.pending = new AtomicInteger();
+        this.maxWaiting = this.maxPending * 16;
+        this.waiting = new ArrayDeque<>();
+        this.waitingSessions = new IdentityHashMap<>();
+        this.completed = new ConcurrentLinkedQueue<>();
+        this.applyScheduled = new AtomicBoolean();
+    }
+
+    /** Set the maximum number of jobs given to the worker pool at the same time.
+     * @since 1.0
+     * @param maxPending The maximum number of jobs.
+     */
+    void setMaxPending(int maxPending) {
+        this.maxPending = Math.max(1, maxPending);
+        this.maxWaiting = this.maxPending * 16;
+    }
+
+    /** Give the number of jobs not yet applied.
+     * @since 1.0
+     * @return Returns the number of jobs rendering or waiting to be rendered.
+     */
+    int getPendingCount() {
+        return this.pending.get() + this.waiting.size();
+    }
+
+    /** Render slots of a session outside the main thread (Main thread only).
+     * If the session already has a waiting job, the slots are merged into it.
+     * If too many jobs are waiting, the jobs of the sessions closed or switched in the meantime are dropped first,
+     * and the job waits for a later tick like the others.
+     * @since 1.0
+     * @param session The session to render.
+     * @param layout The layout to render.
+     * @param slots The bitmap of the slots to render (Only slots of buttons depending on the player).
+     */
+    void submit(FastInventoryHolder session, Layout layout, long slots) {
+        Job job = this.waitingSessions.get(session);
+
+        if (job != null && job.fastInventory == session.getFastInventory()) {
+            job.merge(layout, slots, session.nextRenderVersion());
+            return;
+        }
+        job = new Job(session, layout, slots, session.nextRenderVersion());
+        if (this.waiting.size() >= this.maxWaiting)
+            dropStaleJobs();
+        this.waiting.add(job);
+        this.waitingSessions.put(session, job);
+        drainWaiting();
+    }
+
+    /** Drop the waiting jobs whose session was closed or switched to another inventory (Main thread only).
+     * @since 1.0
+     */
+    private void dropStaleJobs() {
+        this.waiting.removeIf(job -> {
+            if (!job.isStale())
+                return false;
+            this.waitingSessions.remove(job.session, job);
+            return true;
+        });
+    }
+
+    /** Give waiting jobs to the worker pool while there is room.
+     * @since 1.0
+     */
+    private void drainWaiting() {
+        Job job;
+
+        while (this.pending.get() < this.maxPending && (job = this.waiting.peek()) != null) {
+            if (!job.isStale()) {
+                this.pending.incrementAndGet();
+                try {
+                    this.manager.getExecutor().execute(job);
+                } catch (RejectedExecutionException exception) {
+                    this.pending.decrementAndGet();
+                    return;
+                }
+            }
+            this.waiting.poll();
+            this.waitingSessions.remove(job.session, job);
+        }
+    }
+
+    /** Apply the completed jobs to the open inventories, then give waiting jobs to the worker pool (Main thread only).
+     * @since 1.0
+     */
+    private void apply() {
+        Job job;
+
+        this.applyScheduled.set(false);
+        while ((job = this.completed.poll()) != null)
+            job.apply();
+        drainWaiting();
+    }
+
+    /** Schedule the application of the completed jobs at the next tick (Any thread).
+     * @since 1.0
+     */
+    private void scheduleApply() {
+        if (this.applyScheduled.compareAndSet(false, true))
+            this.manager.getPlugin().getServer().getScheduler().runTask(this.manager.getPlugin(), this::apply);
+    }
+
+    /**
+     * The rendering of some slots of a session.
+     */
+    private class Job implements Runnable {
+
+        private final FastInventoryHolder session;
+        private final FastInventory fastInventory;
+        private Layout layout;
+        private long slots;
+        private int version;
+        private final ItemButton[] buttons;
+        private final ItemStack[] results;
+
+        private Job(FastInventoryHolder session, Layout layout, long slots, int version) {
+            this.session = session;
+            this.fastInventory = session.getFastInventory();
+            this.layout = layout;
+            this.slots = slots;
+            this.version = version;
+            this.buttons = new ItemButton[layout.buttons.length];
+            this.results = new ItemStack[layout.buttons.length];
+        }
+
+        /** Add slots to render to the job, while it is waiting (Main thread only).
+         * @since 1.0
+         * @param layout The layout to render, newer than the one of the job.
+         * @param slots The bitmap of the slots to add.
+         * @param version The render version of the session, newer than the one of the job.
+         */
+        private void merge(Layout layout, long slots, int version) {
+            this.layout = layout;
+            this.slots |= slots;
+            this.version = version;
+        }
+
+        /** Check if the session was closed or switched to another inventory since the job was submitted.
+         * @since 1.0
+         * @return Returns true if the results must be dropped, otherwise returns false.
+         */
+        private boolean isStale() {
+            return this.session.isClosed() || this.session.getFastInventory() != this.fastInventory;
+        }
+
+        @Override
+        public void run() {
+            long slots = this.slots & this.layout.playerDependentSlots;
+            int slot;
+
+            try {
+                while (slots != 0 && !isStale()) {
+                    slot = Long.numberOfTrailingZeros(slots);
+                    slots &= slots - 1;
+                    this.buttons[slot] = (ItemButton) this.layout.buttons[slot];
+                    try {
+                        this.results[slot] = this.buttons[slot].getItemStack(this.session.getViewer());
+                    } catch (RuntimeException exception) {
+                        AsyncRenderer.this.manager.getPlugin().getLogger().log(Level.WARNING, "FastGUI failed to render the slot " + slot + ".", exception);
+                    }
+                }
+                if (!isStale())
+                    AsyncRenderer.this.completed.add(this);
+            } finally {
+                AsyncRenderer.this.pending.decrementAndGet();
+                scheduleApply();
+            }
+        }
+
+        /** Apply the rendered items to the inventory of the session (Main thread only).
+         * An item is dropped if its button was removed or replaced since, or if a newer render of its slot was already applied.
+         * @since 1.0
+         */
+        private void apply() {
+            Layout current;
+            Inventory inventory;
+
+            if (isStale())
+                return;
+            current = this.fastInventory.getLayout();
+            inventory = this.session.getInventory();
+            for (int slot = 0; slot < this.results.length; slot++) {
+                if (this.results[slot] == null || current.buttons[slot] != this.buttons[slot])
+                    continue;
+                if (this.session.applyRenderVersion(slot, this.version))
+                    inventory.setItem(slot, this.results[slot]);
+            }
+        }
+    }
+}
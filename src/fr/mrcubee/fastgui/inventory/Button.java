@@ -1,11 +1,13 @@
 package fr.mrcubee.fastgui.inventory;
 
+import fr.mrcubee.fastgui.metric.ButtonMetrics;
+import fr.mrcubee.fastgui.metric.Metrics;
 import org.bukkit.entity.HumanEntity;
 import org.bukkit.event.inventory.InventoryClickEvent;
 
-import java.util.Objects;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 /** This class represents a button in the inventory.
  * @author MrCubee
@@ -31,6 +33,26 @@ public class Button {
     private final BiConsumer<? super Button, ? super HumanEntity> action;
     private final Consumer<? super InventoryClickEvent> event;
 
+    /**
+     * The minimum interval between two clicks of the same player, in milliseconds (0 if unlimited).
+     */
+    private long clickCooldown;
+
+    /**
+     * The counters and durations of the actions of the button.
+     */
+    private final ButtonMetrics metrics;
+
+    /**
+     * The permission required to see the button, or null.
+     */
+    private volatile String permission;
+
+    /**
+     * The condition to see the button, or null.
+     */
+    private volatile Predicate<? super HumanEntity> visibility;
+
     /** Create the instance of a button for a specific inventory.
      * @since 1.0
      * @param fastInventory The inventory where the button is placed.
@@ -42,6 +64,10 @@ public class Button {
         this.slot = slot;
         this.action = action;
         this.event = event;
+        this.clickCooldown = 0L;
+        this.metrics = new ButtonMetrics();
+        this.permission = null;
+        this.visibility = null;
     }
 
     /** Perform the button action depending on the player who clicked.
@@ -49,10 +75,98 @@ public class Button {
      * @param humanEntity The player who clicked the button.
      */
     protected void execute(InventoryClickEvent event, HumanEntity humanEntity) {
+        long start;
+
         if (humanEntity == null || this.action == null)
             return;
+        start = Metrics.start();
         this.action.accept(this, humanEntity);
         this.event.accept(event);
+        this.fastInventory.getMetrics().recordAction(this.metrics, this.slot, start);
+    }
+
+    /** Give the counters and durations of the actions of the button.
+     * @since 1.0
+     * @return Returns the metrics of the button.
+     */
+    public ButtonMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    /** Define the minimum interval between two clicks of the same player. Faster clicks are dropped before the action is performed.
+     * @since 1.0
+     * @param clickCooldown The minimum interval in milliseconds (0 if unlimited).
+     */
+    public void setClickCooldown(long clickCooldown) {
+        this.clickCooldown = Math.max(0L, clickCooldown);
+    }
+
+    /** Give the minimum interval between two clicks of the same player.
+     * @since 1.0
+     * @return Returns the minimum interval in milliseconds (0 if unlimited).
+     */
+    public long getClickCooldown() {
+        return this.clickCooldown;
+    }
+
+    /** Define the permission required to see and use the button. The players without it see the item of the slot under the button,
+     * and their clicks go to the default button.
+     * @since 1.0
+     * @param permission The permission, or null if the button is visible to everyone.
+     */
+    public void setPermission(String permission) {
+        this.permission = permission;
+        if (this.fastInventory != null)
+            this.fastInventory.updateButton(this);
+    }
+
+    /** Give the permission required to see and use the button.
+     * @since 1.0
+     * @return Returns the permission, or null if there is none.
+     */
+    public String getPermission() {
+        return this.permission;
+    }
+
+    /** Define a condition to see and use the button (Rank, progress...), checked once per session of each viewer.
+     * After a change of the result for a player, see {@link FastInventory#invalidateVisibility(HumanEntity)}.
+     * @since 1.0
+     * @param visibility The condition, or null if the button is visible to everyone.
+     */
+    public void setVisibility(Predicate<? super HumanEntity> visibility) {
+        this.visibility = visibility;
+        if (this.fastInventory != null)
+            this.fastInventory.updateButton(this);
+    }
+
+    /** Give the condition to see and use the button.
+     * @since 1.0
+     * @return Returns the condition, or null if there is none.
+     */
+    public Predicate<? super HumanEntity> getVisibility() {
+        return this.visibility;
+    }
+
+    /** Check if the visibility of the button depends on the player.
+     * @since 1.0
+     * @return Returns true if the button has a permission or a condition, otherwise returns false.
+     */
+    public boolean isConditional() {
+        return this.permission != null || this.visibility != null;
+    }
+
+    /** Check if a player can see and use the button, evaluating its permission and condition.
+     * @since 1.0
+     * @param player The player.
+     * @return Returns true if the button is visible to the player, otherwise returns false.
+     */
+    public boolean isVisible(HumanEntity player) {
+        String requiredPermission = this.permission;
+        Predicate<? super HumanEntity> condition = this.visibility;
+
+        if (requiredPermission != null && (player == null || !player.hasPermission(requiredPermission)))
+            return false;
+        return condition == null || condition.test(player);
     }
 
     /** Remove the button from inventory
@@ -60,7 +174,7 @@ public class Button {
      */
     public void remove() {
         if (this.fastInventory != null)
-            this.fastInventory.buttons.remove(this);
+            this.fastInventory.removeButton(this);
     }
 
     /** Give the inventory where the button is located.
@@ -70,14 +184,4 @@ public class Button {
     public FastInventory getFastInventory() {
         return this.fastInventory;
     }
-
-    @Override
-    public boolean equals(Object obj) {
-        return obj instanceof Button && obj.hashCode() == hashCode();
-    }
-
-    @Override
-    public int hashCode() {
-        return Objects.hash(this.fastInventory, this.slot);
-    }
 }
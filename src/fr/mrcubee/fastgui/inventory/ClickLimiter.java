@@ -0,0 +1,158 @@
+package fr.mrcubee.fastgui.inventory;
+
+import org.bukkit.entity.HumanEntity;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/** This class limits the clicks of the players before the actions of the buttons are executed.
+ * Each player has a budget of clicks (token bucket), and each button can have a minimum interval between two clicks of the same player.
+ * The clicks are handled on the main thread, so the state of the players is not synchronized.
+ * @author MrCubee
+ * @Contributor Lightnew
+ * @version 1.0
+ * @since 1.0
+ */
+public class ClickLimiter {
+
+    /**
+     * The number of recently clicked buttons remembered for each player.
+     */
+    private static final int RECENT_BUTTONS = 8;
+
+    /**
+     * The maximum number of clicks a player can make in a burst (0 if the budget is disabled).
+     */
+    private int capacity;
+
+    /**
+     * The time needed to earn a click back, in nanoseconds.
+     */
+    private long refillInterval;
+
+    /**
+     * The click state of the players.
+     */
+    private final Map<UUID, PlayerClicks> players;
+
+    /**
+     * The number of clicks dropped by the limiter.
+     */
+    private final LongAdder droppedClicks;
+
+    /** Create a click limiter without player budget.
+     * @since 1.0
+     */
+    public ClickLimiter() {
+        this.capacity = 0;
+        this.refillInterval = 0L;
+        this.players = new HashMap<>();
+        this.droppedClicks = new LongAdder();
+    }
+
+    /** Define the click budget of each player.
+     * @since 1.0
+     * @param capacity The maximum number of clicks a player can make in a burst (0 to disable the budget).
+     * @param refillInterval The time needed to earn a click back, in milliseconds.
+     */
+    public void setPlayerBudget(int capacity, long refillInterval) {
+        this.capacity = Math.max(0, capacity);
+        this.refillInterval = TimeUnit.MILLISECONDS.toNanos(Math.max(1L, refillInterval));
+        for (PlayerClicks playerClicks : this.players.values())
+            playerClicks.tokens = Math.min(playerClicks.tokens, this.capacity);
+    }
+
+    /** Give the number of clicks dropped by the limiter.
+     * @since 1.0
+     * @return Returns the number of dropped clicks.
+     */
+    public long getDroppedClicks() {
+        return this.droppedClicks.sum();
+    }
+
+    /** Check if a player can click, and consume the click if so.
+     * @since 1.0
+     * @param player The player who clicked.
+     * @param button The clicked button, or null if there is none.
+     * @return Returns true if the click can be executed, otherwise returns false if it must be dropped.
+     */
+    boolean tryClick(HumanEntity player, Button button) {
+        long cooldown = button != null ? button.getClickCooldown() : 0L;
+        PlayerClicks playerClicks;
+        long now;
+
+        if (this.capacity == 0 && cooldown == 0)
+            return true;
+        playerClicks = this.players.get(player.getUniqueId());
+        if (playerClicks == null) {
+            playerClicks = new PlayerClicks(this.capacity);
+            this.players.put(player.getUniqueId(), playerClicks);
+        }
+        now = System.nanoTime();
+        if ((this.capacity != 0 && !playerClicks.takeToken(now, this.capacity, this.refillInterval))
+        || (cooldown != 0 && !playerClicks.checkCooldown(now, button, TimeUnit.MILLISECONDS.toNanos(cooldown)))) {
+            this.droppedClicks.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /** Forget the click state of a player.
+     * @since 1.0
+     * @param player The unique id of the player.
+     */
+    void removePlayer(UUID player) {
+        this.players.remove(player);
+    }
+
+    /**
+     * The click state of a player.
+     */
+    private static class PlayerClicks {
+
+        private long tokens;
+        private long lastRefill;
+        private final Button[] recentButtons;
+        private final long[] recentClicks;
+        private int nextRecent;
+
+        private PlayerClicks(int capacity) {
+            this.tokens = capacity;
+            this.lastRefill = System.nanoTime();
+            this.recentButtons = new Button[RECENT_BUTTONS];
+            this.recentClicks = new long[RECENT_BUTTONS];
+            this.nextRecent = 0;
+        }
+
+        private boolean takeToken(long now, int capacity, long refillInterval) {
+            long earned = (now - this.lastRefill) / refillInterval;
+
+            if (earned > 0) {
+                this.tokens = Math.min(capacity, this.tokens + earned);
+                this.lastRefill = this.tokens == capacity ? now : this.lastRefill + earned * refillInterval;
+            }
+            if (this.tokens <= 0)
+                return false;
+            this.tokens--;
+            return true;
+        }
+
+        private boolean checkCooldown(long now, Button button, long cooldown) {
+            for (int i = 0; i < RECENT_BUTTONS; i++) {
+                if (this.recentButtons[i] != button)
+                    continue;
+                if (now - this.recentClicks[i] < cooldown)
+                    return false;
+                this.recentClicks[i] = now;
+                return true;
+            }
+            this.recentButtons[this.nextRecent] = button;
+            this.recentClicks[this.nextRecent] = now;
+            this.nextRecent = (this.nextRecent + 1) % RECENT_BUTTONS;
+            return true;
+        }
+    }
+}
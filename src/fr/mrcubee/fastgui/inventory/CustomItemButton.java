@@ -4,6 +4,10 @@ import org.bukkit.entity.HumanEntity;
 import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.inventory.ItemStack;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
@@ -21,6 +25,16 @@ public class CustomItemButton extends ItemButton {
     private final BiConsumer<? super HumanEntity, ItemStack> itemEditor;
     private final Consumer<? super InventoryClickEvent> event;
 
+    /**
+     * The cache of the items rendered by player, or null if the cache is disabled.
+     */
+    private volatile RenderCache renderCache;
+
+    /**
+     * The keys which invalidate the cache.
+     */
+    private Set<String> invalidationKeys;
+
     /** Create the instance of a item button for a specific inventory.
      * @since 1.0
      * @param fastInventory The inventory where the button is placed.
@@ -33,14 +47,102 @@ public class CustomItemButton extends ItemButton {
         super(fastInventory, slot, action, itemStack, event);
         this.itemEditor = itemEditor;
         this.event = event;
+        this.renderCache = null;
+        this.invalidationKeys = Collections.emptySet();
     }
 
+    /** Give the item seen by a player. Only the item editor works on a copy of the frozen item,
+     * the rendered item is then kept read only in the cache.
+     * @since 1.0
+     * @param player The player who wants to have the item.
+     * @return The item requested by the player.
+     */
     @Override
     public ItemStack getItemStack(HumanEntity player) {
-        ItemStack itemStack = super.getItemStack(player);
+        RenderCache cache = this.renderCache;
+        ItemStack itemStack;
 
-        if (player != null && itemStack != null && this.itemEditor != null)
-            this.itemEditor.accept(player, itemStack);
+        if (player == null || this.itemEditor == null || getFrozenItem() == null)
+            return super.getItemStack(player);
+        if (cache != null) {
+            itemStack = cache.get(player.getUniqueId());
+            if (itemStack != null)
+                return itemStack;
+        }
+        itemStack = getFrozenItem().copy();
+        this.itemEditor.accept(player, itemStack);
+        if (cache != null)
+            cache.put(player.getUniqueId(), itemStack);
         return itemStack;
     }
+
+    @Override
+    public boolean isPlayerDependent() {
+        return this.itemEditor != null;
+    }
+
+    /** Keep the items rendered for each player, so that the item editor is only run again after an invalidation.
+     * @since 1.0
+     * @param maxSize The maximum number of players kept in the cache.
+     * @param timeToLive The lifetime of a rendered item in milliseconds (0 if the items do not expire).
+     * @param invalidationKeys The keys which invalidate the cache (See {@link FastInventory#invalidateRender(String)}).
+     * @return Returns the created cache.
+     */
+    public RenderCache enableRenderCache(int maxSize, long timeToLive, String... invalidationKeys) {
+        this.invalidationKeys = new HashSet<>(Arrays.asList(invalidationKeys));
+        this.renderCache = new RenderCache(maxSize, timeToLive);
+        return this.renderCache;
+    }
+
+    /** Stop keeping the items rendered for each player.
+     * @since 1.0
+     */
+    public void disableRenderCache() {
+        this.renderCache = null;
+        this.invalidationKeys = Collections.emptySet();
+    }
+
+    /** Give the cache of the items rendered by player.
+     * @since 1.0
+     * @return Returns the cache, otherwise returns null if the cache is disabled.
+     */
+    public RenderCache getRenderCache() {
+        return this.renderCache;
+    }
+
+    /** Check if a key invalidates the cache of the button.
+     * @since 1.0
+     * @param key The key to check.
+     * @return Returns true if the key invalidates the cache, otherwise returns false.
+     */
+    public boolean hasInvalidationKey(String key) {
+        return this.invalidationKeys.contains(key);
+    }
+
+    /** Render the item again for all players.
+     * @since 1.0
+     */
+    public void invalidateRender() {
+        RenderCache cache = this.renderCache;
+
+        if (cache != null)
+            cache.invalidateAll();
+        if (getFastInventory() != null)
+            getFastInventory().markDirty(1L << this.slot);
+    }
+
+    /** Render the item again for a player.
+     * @since 1.0
+     * @param player The player.
+     */
+    public void invalidateRender(HumanEntity player) {
+        RenderCache cache = this.renderCache;
+
+        if (player == null)
+            return;
+        if (cache != null)
+            cache.invalidate(player.getUniqueId());
+        if (getFastInventory() != null)
+            getFastInventory().markDirty(1L << this.slot);
+    }
 }
@@ -0,0 +1,48 @@
+package fr.mrcubee.fastgui.inventory;
+
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.event.inventory.InventoryClickEvent;
+
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/** This class represents the default button of an inventory on one of its slots.
+ * The instances of all the slots are created with the default button, so that a click does not create any.
+ * @author MrCubee
+ * @Contributor Lightnew
+ * @version 1.0
+ * @since 1.0
+ */
+final class DefaultButton extends Button {
+
+    /** Create the instance of the default button for a slot of an inventory.
+     * @since 1.0
+     * @param fastInventory The inventory where the button is placed.
+     * @param slot The slot where the button is clicked, or -1 for the instance representing all the slots.
+     * @param action The action to be performed by the button.
+     */
+    DefaultButton(FastInventory fastInventory, int slot, BiConsumer<? super Button, ? super HumanEntity> action, Consumer<? super InventoryClickEvent> event) {
+        super(fastInventory, slot, action, event);
+    }
+
+    /** Create the instances of the default button for all the slots of an inventory.
+     * @since 1.0
+     * @param fastInventory The inventory where the button is placed.
+     * @param inventorySize The size of the inventory (the number of slots).
+     * @param action The action to be performed by the button.
+     * @return Returns the instances indexed by slot, followed by the instance of the slot -1.
+     */
+    static Button[] createAll(FastInventory fastInventory, int inventorySize, BiConsumer<? super Button, ? super HumanEntity> action, Consumer<? super InventoryClickEvent> event) {
+        Button[] buttons = new Button[inventorySize + 1];
+
+        for (int slot = 0; slot < inventorySize; slot++)
+            buttons[slot] = new DefaultButton(fastInventory, slot, action, event);
+        buttons[inventorySize] = new DefaultButton(fastInventory, -1, action, event);
+        return buttons;
+    }
+
+    @Override
+    public void remove() {
+        getFastInventory().removeDefaultButton();
+    }
+}
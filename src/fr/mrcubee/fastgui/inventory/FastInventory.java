@@ -1,17 +1,31 @@
 package fr.mrcubee.fastgui.inventory;
 
-import fr.mrcubee.fastgui.tool.WeakHashSet;
+import fr.mrcubee.fastgui.journal.ClickOutcome;
+import fr.mrcubee.fastgui.metric.InventoryMetrics;
+import fr.mrcubee.fastgui.metric.Metrics;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.HumanEntity;
 import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
 import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.Plugin;
 
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
 import java.util.function.Consumer;
+import java.util.function.LongFunction;
+import java.util.function.Predicate;
 
 /** This class builds the inventory that will be given to the player.
  * @author MrCubee
@@ -21,49 +35,134 @@ import java.util.function.Consumer;
  */
 public class FastInventory {
 
+    /**
+     * The manager that created the inventory.
+     */
+    private final FastInventoryManager manager;
+
+    /**
+     * The id of the inventory, unique in its manager.
+     */
+    private final int id;
+
     /**
      * The size of the inventory (the number of slots).
      */
     private final int inventorySize;
 
     /**
-     * The contents of the inventory (Without the item buttons).
+     * The current layout (items, fill item, buttons and default button), replaced as a whole by each change.
+     */
+    private volatile Layout layout;
+
+    /**
+     * The lock of the threads changing the layout.
+     */
+    private final ReentrantLock layoutLock;
+
+    /**
+     * The next layout being built by the thread holding the lock, or null.
+     */
+    private Layout.Builder layoutBuilder;
+
+    /**
+     * The sessions of the players whose inventory is open, by player id.
+     */
+    private final Map<UUID, FastInventoryHolder> viewers;
+
+    /**
+     * The players viewing the shared inventory, by player id (Main thread only).
+     */
+    private final Map<UUID, HumanEntity> sharedViewers;
+
+    /**
+     * The mode defining if the viewers share the same Bukkit inventory.
+     */
+    private volatile ShareMode shareMode;
+
+    /**
+     * The session of the shared Bukkit inventory, or null if it is not built (Main thread only).
+     */
+    private FastInventoryHolder sharedSession;
+
+    /**
+     * The title of the shared Bukkit inventory.
      */
-    private final ItemStack[] contents;
+    private String sharedTitle;
 
     /**
-     * The list of inventory buttons.
+     * The layout displayed by the shared Bukkit inventory.
      */
-    protected final Set<Button> buttons;
+    private Layout sharedLayout;
 
     /**
-     * The default button instructions.
+     * True once the inventory is disposed.
      */
-    private BiConsumer<? super Button, HumanEntity> defaultButton;
-    private Consumer<? super InventoryClickEvent> defaultButtonEvent;
+    private volatile boolean disposed;
 
     /**
-     * The element to use to fill all free slots.
+     * The bitmap of the slots changed since the last refresh of the viewers.
      */
-    private ItemStack fillItem;
+    private final AtomicLong dirtySlots;
 
     /**
-     * List of players whose inventory is open.
+     * The number of times slots were marked to be sent again, so that a suspended view knows if it is still up to date.
      */
-    private final Set<HumanEntity> viewers;
+    private final AtomicInteger renderVersion;
+
+    /**
+     * True if the inventory is disposed once its last viewer has closed it.
+     */
+    private volatile boolean disposeOnClose;
+
+    /**
+     * True if the items depending on the player are rendered outside the main thread.
+     */
+    private volatile boolean asyncRender;
+
+    /**
+     * The item displayed while an item depending on the player is rendered outside the main thread.
+     */
+    private volatile FrozenItem renderPlaceholder;
+
+    /**
+     * The counters and durations of the inventory.
+     */
+    private final InventoryMetrics metrics;
 
     /** Create the inventory constructor instance with a specific size (Multiple of 9 between 9 and 54 included).
      * @since 1.0
+     * @param manager The manager that creates the inventory.
      * @param inventorySize The size of the inventory (the number of slots).
      */
-    protected FastInventory(int inventorySize) {
+    protected FastInventory(FastInventoryManager manager, int inventorySize) {
+        this.manager = manager;
+        this.id = manager.nextInventoryId();
         this.inventorySize = inventorySize;
-        this.contents = new ItemStack[this.inventorySize];
-        this.buttons = new HashSet<>();
-        this.defaultButton = null;
-        this.defaultButtonEvent = null;
-        this.fillItem = null;
-        this.viewers = new WeakHashSet<>();
+        this.layout = new Layout(inventorySize);
+        this.layoutLock = new ReentrantLock();
+        this.layoutBuilder = null;
+        this.viewers = new ConcurrentHashMap<>();
+        this.sharedViewers = new HashMap<>();
+        this.shareMode = ShareMode.AUTO;
+        this.sharedSession = null;
+        this.sharedTitle = null;
+        this.sharedLayout = null;
+        this.disposed = false;
+        this.dirtySlots = new AtomicLong();
+        this.renderVersion = new AtomicInteger();
+        this.disposeOnClose = false;
+        this.asyncRender = false;
+        this.renderPlaceholder = null;
+        this.metrics = new InventoryMetrics(manager.getPlugin().getName(), this.id);
+    }
+
+    /** Give the manager that created the inventory.
+     * @since 1.0
+     * @return Returns the inventory manager.
+     */
+    public FastInventoryManager getManager() {
+        return this.manager;
     }
 
     /** Defines the Item with which the constructor should fill the free slots.
@@ -71,7 +170,208 @@ public class FastInventory {
      * @param itemStack The item to use.
      */
     public void fillInventory(ItemStack itemStack) {
-        this.fillItem = itemStack;
+        fillInventory(FrozenItem.of(itemStack));
+    }
+
+    /** Defines the frozen Item with which the constructor should fill the free slots.
+     * @since 1.0
+     * @param item The frozen item to use.
+     */
+    public void fillInventory(FrozenItem item) {
+        editLayout(builder -> {
+            builder.setFillItem(item);
+            return true;
+        });
+    }
+
+    /** Apply several changes of items and buttons as a single change, from any thread.
+     * The players only see the layout once all changes are applied, and none of them if the changes throw an exception.
+     * @since 1.0
+     * @param edits The changes to apply to this inventory.
+     */
+    public void edit(Consumer<? super FastInventory> edits) {
+        boolean success = false;
+
+        beginEdit();
+        try {
+            edits.accept(this);
+            success = true;
+        } finally {
+            endEdit(success);
+        }
+    }
+
+    /** Apply a change to the layout, from any thread.
+     * @since 1.0
+     * @param change The change to apply to the next layout.
+     * @return Returns the result of the change.
+     */
+    private boolean editLayout(Predicate<Layout.Builder> change) {
+        Layout.Builder builder = beginEdit();
+        boolean result = false;
+
+        try {
+            result = change.test(builder);
+        } finally {
+            endEdit(true);
+        }
+        return result;
+    }
+
+    /** Lock the layout and give the builder of the next layout, shared by nested changes of the same thread.
+     * @since 1.0
+     * @return Returns the builder of the next layout.
+     */
+    private Layout.Builder beginEdit() {
+        this.layoutLock.lock();
+        if (this.layoutBuilder == null)
+            this.layoutBuilder = this.layout.edit();
+        return this.layoutBuilder;
+    }
+
+    /** Unlock the layout. The outermost change publishes the next layout and marks the changed slots to be refreshed.
+     * @since 1.0
+     * @param commit True to publish the next layout, false to drop it.
+     */
+    private void endEdit(boolean commit) {
+        Layout.Builder builder = this.layoutBuilder;
+        long changedSlots = 0L;
+
+        try {
+            if (this.layoutLock.getHoldCount() != 1)
+                return;
+            this.layoutBuilder = null;
+            if (!commit || !builder.isChanged())
+                return;
+            this.layout = builder.build();
+            changedSlots = builder.getChangedSlots();
+        } finally {
+            this.layoutLock.unlock();
+        }
+        markDirty(changedSlots);
+        if (!this.viewers.isEmpty())
+            scheduleAnimations(this.layout);
+    }
+
+    /** Put the animated buttons of a layout in the timing wheel of the manager, when the inventory is viewed.
+     * @since 1.0
+     * @param layout The layout.
+     */
+    private void scheduleAnimations(Layout layout) {
+        long slots = layout.animatedSlots;
+
+        while (slots != 0) {
+            ((AnimatedButton) layout.buttons[Long.numberOfTrailingZeros(slots)]).schedule();
+            slots &= slots - 1;
+        }
+    }
+
+    /** Mark slots to be sent again to the players viewing the inventory, from any thread.
+     * The refresh is done once at the next server tick, whatever the number of changes.
+     * @since 1.0
+     * @param slots The bitmap of the slots to refresh.
+     */
+    protected void markDirty(long slots) {
+        if (slots == 0)
+            return;
+        this.renderVersion.incrementAndGet();
+        if (this.viewers.isEmpty())
+            return;
+        if (this.dirtySlots.getAndAccumulate(slots, (dirty, added) -> dirty | added) == 0)
+            this.manager.queueRefresh(this);
+    }
+
+    /** Give the layout version, which changes each time items or buttons are changed.
+     * @since 1.0
+     * @return Returns the layout version.
+     */
+    public int getLayoutVersion() {
+        return this.layout.version;
+    }
+
+    /** Give the current layout snapshot.
+     * @since 1.0
+     * @return Returns the layout.
+     */
+    Layout getLayout() {
+        return this.layout;
+    }
+
+    /** Give the render version, which changes each time slots are marked to be sent again.
+     * @since 1.0
+     * @return Returns the render version.
+     */
+    int getRenderVersion() {
+        return this.renderVersion.get();
+    }
+
+    /** Give the id of the inventory, unique in its manager.
+     * @since 1.0
+     * @return Returns the id.
+     */
+    public int getId() {
+        return this.id;
+    }
+
+    /** Give the counters and durations of the inventory.
+     * @since 1.0
+     * @return Returns the metrics of the inventory.
+     */
+    public InventoryMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    /** Give the number of players viewing the inventory.
+     * @since 1.0
+     * @return Returns the number of viewers.
+     */
+    public int getViewerCount() {
+        return this.viewers.size();
+    }
+
+    /** Give the number of buttons of the inventory (Without the default button).
+     * @since 1.0
+     * @return Returns the number of buttons.
+     */
+    public int getButtonCount() {
+        return Long.bitCount(this.layout.buttonSlots);
+    }
+
+    /** Render the items depending on the player outside the main thread.
+     * The inventory opens at once with the placeholder item, then the rendered items are applied on the main thread.
+     * The item editors of the buttons must then be thread-safe.
+     * @since 1.0
+     * @param asyncRender True to render outside the main thread, false to render on opening.
+     * @param placeholder The item displayed while rendering, or null to leave the slots empty.
+     */
+    public void setAsyncRender(boolean asyncRender, ItemStack placeholder) {
+        this.asyncRender = asyncRender;
+        this.renderPlaceholder = FrozenItem.of(placeholder);
+    }
+
+    /** Check if the items depending on the player are rendered outside the main thread.
+     * @since 1.0
+     * @return Returns true if the rendering is asynchronous, otherwise returns false.
+     */
+    public boolean isAsyncRender() {
+        return this.asyncRender;
+    }
+
+    /** Define if the players viewing the inventory share the same Bukkit inventory (AUTO by default).
+     * A shared inventory is built once per layout, then changed in place for all its viewers.
+     * @since 1.0
+     * @param shareMode The share mode.
+     */
+    public void setShareMode(ShareMode shareMode) {
+        this.shareMode = shareMode == null ? ShareMode.AUTO : shareMode;
+    }
+
+    /** Give the mode defining if the players viewing the inventory share the same Bukkit inventory.
+     * @since 1.0
+     * @return Returns the share mode.
+     */
+    public ShareMode getShareMode() {
+        return this.shareMode;
     }
 
     /** Place an item in the desired slot.
@@ -81,29 +381,45 @@ public class FastInventory {
      * @return Returns true if the element is placed, otherwise on error returns false.
      */
     public boolean setItem(int slot, ItemStack itemStack) {
-        if (slot < 1 || slot > this.inventorySize)
+        return setItem(slot, FrozenItem.of(itemStack));
+    }
+
+    /** Place a frozen item in the desired slot. The same frozen item can be placed in several slots and inventories.
+     * @since 1.0
+     * @param slot The desired slot.
+     * @param item The frozen item to use.
+     * @return Returns true if the element is placed, otherwise on error returns false.
+     */
+    public boolean setItem(int slot, FrozenItem item) {
+        if (slot < 0 || slot >= this.inventorySize)
             return false;
-        this.contents[slot] = itemStack;
-        return true;
+        return editLayout(builder -> {
+            builder.setContent(slot, item);
+            return true;
+        });
     }
 
-    /** Get the item from a player's point of view in the specified slot.
+    /** Get the item from a player's point of view in the specified slot. The item is shared, so it must be read only.
      * @since 1.0
      * @param slot The desired slot.
      * @param player The player to use for his point of view.
      * @return Returns the item seen by the specified player.
      */
     public ItemStack getItem(int slot, HumanEntity player) {
+        Layout layout = this.layout;
         Button button;
 
-        if (slot < 1 || slot > this.inventorySize)
+        if (slot < 0 || slot >= this.inventorySize)
             return null;
-        button = getButton(slot);
+        button = layout.buttons[slot];
+        if (player != null && (layout.conditionalSlots & (1L << slot)) != 0
+        && (getHiddenSlots(this.viewers.get(player.getUniqueId()), player, layout) & (1L << slot)) != 0)
+            return layout.getHiddenItem(slot);
         if (button instanceof ItemButton)
             return ((ItemButton) button).getItemStack(player);
-        if (this.contents[slot] == null)
-            return this.fillItem;
-        return this.contents[slot];
+        if (layout.contents[slot] == null)
+            return FrozenItem.unwrap(layout.fillItem);
+        return FrozenItem.unwrap(layout.contents[slot]);
     }
 
     /** Get the item in the specified slot.
@@ -121,9 +437,9 @@ public class FastInventory {
      * @return
      */
     public ItemStack getContentItem(int slot) {
-        if (slot < 1 || slot > this.contents.length)
+        if (slot < 0 || slot >= this.inventorySize)
             return null;
-        return this.contents[slot];
+        return FrozenItem.unwrap(this.layout.contents[slot]);
     }
 
     /** Get the item used by the constructor to fill in the free slots.
@@ -131,7 +447,7 @@ public class FastInventory {
      * @return The item used.
      */
     public ItemStack getFillItem() {
-        return this.fillItem;
+        return FrozenItem.unwrap(this.layout.fillItem);
     }
 
     /** Fill the desired row with the given item.
@@ -141,14 +457,17 @@ public class FastInventory {
      * @return Returns true if items are placed, otherwise returns false on error.
      */
     public boolean setRow(int row, ItemStack itemStack) {
+        FrozenItem item = FrozenItem.of(itemStack);
         int start = row * 9;
         int stop = start + 9;
 
         if (start < 0 || stop > this.inventorySize)
             return false;
-        for (int i = start; i < stop; i++)
-            this.contents[i] = itemStack;
-        return true;
+        return editLayout(builder -> {
+            for (int i = start; i < stop; i++)
+                builder.setContent(i, item);
+            return true;
+        });
     }
 
     /** Fill the desired column with the given item.
@@ -158,11 +477,15 @@ public class FastInventory {
      * @return Returns true if items are placed, otherwise returns false on error.
      */
     public boolean setColumn(int column, ItemStack itemStack) {
+        FrozenItem item = FrozenItem.of(itemStack);
+
         if (column < 0 || column >= 9)
             return false;
-        for (int i = column; i < this.inventorySize; i += 9)
-            this.contents[i] = itemStack;
-        return true;
+        return editLayout(builder -> {
+            for (int i = column; i < this.inventorySize; i += 9)
+                builder.setContent(i, item);
+            return true;
+        });
     }
 
     /** Create a default button in the inventory, which is executed if the player does not click any of the registered buttons.
@@ -171,8 +494,9 @@ public class FastInventory {
      * @return Returns the created button instance.
      */
     public Button createDefaultButton(BiConsumer<? super Button, HumanEntity> action, Consumer<? super InventoryClickEvent> event) {
-        this.defaultButton = action;
-        this.defaultButtonEvent = event;
+        Button[] defaultButtons = action != null ? DefaultButton.createAll(this, this.inventorySize, action, event) : null;
+
+        editLayout(builder -> builder.setDefaultButton(defaultButtons));
         return getDefaultButton();
     }
 
@@ -181,19 +505,9 @@ public class FastInventory {
      * @return Returns the default button instance or returns null if the button has not been created.
      */
     public Button getDefaultButton() {
-        if (this.defaultButton == null)
-            return null;
-        return new Button(this, -1, this.defaultButton, this.defaultButtonEvent) {
-            @Override
-            public void remove() {
-                getFastInventory().defaultButton = null;
-            }
+        Button[] defaultButtons = this.layout.defaultButtons;
 
-            @Override
-            public int hashCode() {
-                return Objects.hashCode(getFastInventory());
-            }
-        };
+        return defaultButtons != null ? defaultButtons[this.inventorySize] : null;
     }
 
     /** Remove the default button.
@@ -201,10 +515,7 @@ public class FastInventory {
      * @return Returns true if the button has been deleted, otherwise returns false.
      */
     public boolean removeDefaultButton() {
-        if (this.defaultButton == null)
-            return false;
-        this.defaultButton = null;
-        return true;
+        return editLayout(builder -> builder.setDefaultButton(null));
     }
 
     /** Create a button in the inventory.
@@ -219,7 +530,7 @@ public class FastInventory {
         if (slot < 0 || slot >= this.inventorySize)
             return null;
         button = new Button(this, slot, action, event);
-        if (!this.buttons.add(button))
+        if (!addButton(button))
             return null;
         return button;
     }
@@ -232,16 +543,79 @@ public class FastInventory {
      * @return Returns the created button instance.
      */
     public ItemButton createItemButton(int slot, ItemStack itemStack, BiConsumer<? super Button, ? super HumanEntity> action, Consumer<? super InventoryClickEvent> event) {
+        return createItemButton(slot, FrozenItem.of(itemStack), action, event);
+    }
+
+    /** Create an item button in the inventory, with a frozen item which can be shared with other buttons.
+     * @since 1.0
+     * @param slot The desired slot.
+     * @param item The frozen item that will represent the button.
+     * @param action The instructions to be executed by the button.
+     * @return Returns the created button instance.
+     */
+    public ItemButton createItemButton(int slot, FrozenItem item, BiConsumer<? super Button, ? super HumanEntity> action, Consumer<? super InventoryClickEvent> event) {
         ItemButton button;
 
         if (slot < 0 || slot >= this.inventorySize)
             return null;
-        button = new ItemButton(this, slot, action, itemStack, event);
-        if (!this.buttons.add(button))
+        button = new ItemButton(this, slot, action, item, event);
+        if (!addButton(button))
             return null;
         return button;
     }
 
+    /** Create an animated button displaying a sequence of frames, changed every period while the inventory is viewed.
+     * @since 1.0
+     * @param slot The desired slot.
+     * @param frames The items of the frames (At least one).
+     * @param period The number of ticks between two frames.
+     * @param action The instructions to be executed by the button.
+     * @return Returns the created button instance.
+     */
+    public AnimatedButton createAnimatedButton(int slot, ItemStack[] frames, int period, BiConsumer<? super Button, ? super HumanEntity> action, Consumer<? super InventoryClickEvent> event) {
+        FrozenItem[] items;
+        AnimatedButton button;
+
+        if (slot < 0 || slot >= this.inventorySize || frames == null || frames.length == 0)
+            return null;
+        items = new FrozenItem[frames.length];
+        for (int i = 0; i < frames.length; i++)
+            items[i] = FrozenItem.of(frames[i]);
+        button = new AnimatedButton(this, slot, action, items, period, event);
+        if (!addButton(button))
+            return null;
+        return button;
+    }
+
+    /** Create a button whose item is given by a supplier every period while the inventory is viewed (A countdown...).
+     * @since 1.0
+     * @param slot The desired slot.
+     * @param supplier The function giving the item of a frame number (Starting at 0), called on the main thread.
+     * @param period The number of ticks between two frames.
+     * @param action The instructions to be executed by the button.
+     * @return Returns the created button instance.
+     */
+    public AnimatedButton createTickingButton(int slot, LongFunction<? extends ItemStack> supplier, int period, BiConsumer<? super Button, ? super HumanEntity> action, Consumer<? super InventoryClickEvent> event) {
+        AnimatedButton button;
+
+        if (slot < 0 || slot >= this.inventorySize || supplier == null)
+            return null;
+        button = new AnimatedButton(this, slot, action, supplier, period, event);
+        if (!addButton(button))
+            return null;
+        return button;
+    }
+
+    /** Create the button which goes back to the previous menu of the navigation of the player (See {@link Navigation}).
+     * @since 1.0
+     * @param slot The desired slot.
+     * @param itemStack The item that will represent the button.
+     * @return Returns the created button instance.
+     */
+    public ItemButton createBackButton(int slot, ItemStack itemStack) {
+        return createItemButton(slot, itemStack, (button, player) -> this.manager.getNavigation(player).back(), event -> {});
+    }
+
     /** Create a customizable item button based on the player watching.
      * @since 1.0
      * @param slot The desired slot.
@@ -256,15 +630,42 @@ public class FastInventory {
         if (slot < 0 || slot >= this.inventorySize)
             return null;
         customItemButton = new CustomItemButton(this, slot, action, itemStack, itemEditor, event);
-        if (!this.buttons.add(customItemButton))
+        if (!addButton(customItemButton))
             return null;
         return customItemButton;
     }
     public CustomItemButton createCustomItemButton(int slot, ItemStack itemStack, Consumer<? super InventoryClickEvent> event) {
-        return createCustomItemButton(slot, itemStack, (a, b) -> {}, (a, b) -> {}, event);
+        return createCustomItemButton(slot, itemStack, null, (a, b) -> {}, event);
     }
     public CustomItemButton createCustomItemButton(int slot, ItemStack itemStack, BiConsumer<? super Button, ? super HumanEntity> action) {
-        return createCustomItemButton(slot, itemStack, (a, b) -> {}, action, (a) -> {});
+        return createCustomItemButton(slot, itemStack, null, action, (a) -> {});
+    }
+
+    /** Create an item button whose action runs outside the main thread.
+     * The click is cancelled at once, and the result of the action is given to the completion callback on the main thread,
+     * unless the player has closed the inventory in the meantime.
+     * @since 1.0
+     * @param slot The desired slot.
+     * @param itemStack The item that will represent the button.
+     * @param action The action to be performed outside the main thread.
+     * @param completion The callback receiving the result of the action on the main thread.
+     * @param lock True if a player can not click again while his action is pending.
+     * @param processingItem The item displayed while the action is pending, or null to keep the item of the button
+     *                       (Never displayed in a shared inventory, see {@link ShareMode#SHARED}).
+     * @param <T> The type of the result of the action.
+     * @return Returns the created button instance.
+     */
+    public <T> AsyncItemButton<T> createAsyncItemButton(int slot, ItemStack itemStack,
+                                                        BiFunction<? super Button, ? super HumanEntity, ? extends CompletableFuture<? extends T>> action,
+                                                        BiConsumer<? super T, ? super HumanEntity> completion, boolean lock, ItemStack processingItem) {
+        AsyncItemButton<T> asyncItemButton;
+
+        if (slot < 0 || slot >= this.inventorySize)
+            return null;
+        asyncItemButton = new AsyncItemButton<>(this, slot, itemStack, action, completion, lock, processingItem);
+        if (!addButton(asyncItemButton))
+            return null;
+        return asyncItemButton;
     }
 
     /** Get the button from a specific slot.
@@ -273,12 +674,27 @@ public class FastInventory {
      * @return Returns the instance of the button, otherwise returns null if no button is found at this slot.
      */
     public Button getButton(int slot) {
-        if (slot < 1 || slot > this.inventorySize)
+        if (slot < 0 || slot >= this.inventorySize)
             return null;
-        for (Button button : this.buttons)
-            if (button.slot == slot)
-                return button;
-        return null;
+        return this.layout.buttons[slot];
+    }
+
+    /** Register a button in the slot table.
+     * @since 1.0
+     * @param button The button to register.
+     * @return Returns true if the button is registered, otherwise false if its slot is already used.
+     */
+    private boolean addButton(Button button) {
+        return editLayout(builder -> builder.addButton(button));
+    }
+
+    /** Publish the change of the visibility of a button, if it is still in the inventory.
+     * @since 1.0
+     * @param button The changed button.
+     */
+    void updateButton(Button button) {
+        if (button.slot >= 0 && button.slot < this.inventorySize)
+            editLayout(builder -> builder.updateButton(button));
     }
 
     /** Remove the button from a specific slot.
@@ -287,64 +703,405 @@ public class FastInventory {
      * @return Returns true if the button was deleted, otherwise false if no button was found at this slot.
      */
     public boolean removeButton(int slot) {
-        Button button = createButton(slot, null, null);
+        if (slot < 0 || slot >= this.inventorySize)
+            return false;
+        return editLayout(builder -> builder.removeButton(slot));
+    }
+
+    /** Remove a specific button instance from the slot table.
+     * @since 1.0
+     * @param button The button to remove.
+     * @return Returns true if the button was deleted, otherwise false if another button (or none) is in its slot.
+     */
+    boolean removeButton(Button button) {
+        if (button == null || button.slot < 0 || button.slot >= this.inventorySize)
+            return false;
+        return editLayout(builder -> builder.removeButton(button));
+    }
+
+    /** Give the bitmap of the slots rendered for each viewer by {@link #renderView(FastInventoryHolder, long)}.
+     * @since 1.0
+     * @return Returns the bitmap of the view slots.
+     */
+    protected long getViewSlots() {
+        return this.layout.viewSlots;
+    }
+
+    /** Define the slots rendered for each viewer by {@link #renderView(FastInventoryHolder, long)}.
+     * @since 1.0
+     * @param viewSlots The bitmap of the view slots.
+     */
+    protected void setViewSlots(long viewSlots) {
+        editLayout(builder -> {
+            builder.setViewSlots(viewSlots);
+            return true;
+        });
+    }
+
+    /** Check if a layout is displayed by a shared Bukkit inventory.
+     * @since 1.0
+     * @param layout The layout.
+     * @return Returns true if the layout is shared, otherwise returns false.
+     */
+    private boolean isShared(Layout layout) {
+        switch (this.shareMode) {
+            case SHARED:
+                return true;
+            case AUTO:
+                return layout.playerDependentSlots == 0 && layout.conditionalSlots == 0 && layout.viewSlots == 0;
+            default:
+                return false;
+        }
+    }
+
+    /** Give the shared Bukkit inventory with the desired title, building it or bringing it up to date if needed.
+     * @since 1.0
+     * @param title The title that the inventory will have.
+     * @param layout The layout to display.
+     * @return Returns the session of the shared inventory, otherwise returns null if it is used with another title.
+     */
+    private FastInventoryHolder getSharedSession(String title, Layout layout) {
+        FastInventoryHolder holder = this.sharedSession;
+        Inventory inventory;
 
-        return button != null && this.buttons.remove(button);
+        if (holder != null && !Objects.equals(title, this.sharedTitle)) {
+            if (!this.sharedViewers.isEmpty())
+                return null;
+            holder.close();
+            holder = null;
+        }
+        if (holder == null) {
+            holder = new FastInventoryHolder(this, null);
+            if (title == null)
+                inventory = Bukkit.createInventory(holder, this.inventorySize);
+            else
+                inventory = Bukkit.createInventory(holder, this.inventorySize, title);
+            holder.setInventory(inventory);
+            inventory.setContents(layout.getStaticLayer());
+            renderShared(holder, layout, layout.playerDependentSlots | layout.animatedSlots | layout.viewSlots);
+            this.sharedSession = holder;
+            this.sharedTitle = title;
+            this.sharedLayout = layout;
+        } else if (this.sharedLayout != layout) {
+            renderShared(holder, layout, (1L << this.inventorySize) - 1);
+        }
+        return holder;
+    }
+
+    /** Render slots of the shared Bukkit inventory. The items depending on the player are rendered as seen by no player.
+     * @since 1.0
+     * @param holder The session of the shared inventory.
+     * @param layout The layout to render.
+     * @param slots The bitmap of the slots to render.
+     */
+    private void renderShared(FastInventoryHolder holder, Layout layout, long slots) {
+        Inventory inventory = holder.getInventory();
+        ItemStack[] staticLayer = layout.getStaticLayer();
+        long remaining = slots & ~layout.viewSlots;
+        int slot;
+
+        while (remaining != 0) {
+            slot = Long.numberOfTrailingZeros(remaining);
+            remaining &= remaining - 1;
+            if (((layout.playerDependentSlots | layout.animatedSlots) & (1L << slot)) != 0)
+                inventory.setItem(slot, ((ItemButton) layout.buttons[slot]).getItemStack(null));
+            else
+                inventory.setItem(slot, staticLayer[slot]);
+        }
+        if ((slots & layout.viewSlots) != 0)
+            renderView(holder, slots & layout.viewSlots);
+        this.sharedLayout = layout;
     }
 
     /** Builds the inventory according to the player.
      * @since 1.0
      * @param player The player to use for his point of view.
      * @param title The title that the inventory will have.
+     * @param layout The layout to build.
      * @return Returns the instance of the constructed inventory.
      */
-    private Inventory buildInventory(HumanEntity player, String title) {
+    private Inventory buildInventory(HumanEntity player, String title, Layout layout) {
+        FastInventoryHolder holder;
         Inventory result;
-        ItemButton itemButton;
+        long hidden;
 
         if (this.inventorySize > 54 || this.inventorySize < 9 || this.inventorySize % 9 != 0)
             return null;
+        holder = new FastInventoryHolder(this, player);
         if (title == null)
-            result = Bukkit.createInventory(null, this.inventorySize);
+            result = Bukkit.createInventory(holder, this.inventorySize);
         else
-            result = Bukkit.createInventory(null, this.inventorySize, title);
-        for (int i = 0; i < this.inventorySize; i++) {
-            if (this.contents[i] != null)
-                result.setItem(i, this.contents[i]);
-            else
-                result.setItem(i, this.fillItem);
+            result = Bukkit.createInventory(holder, this.inventorySize, title);
+        holder.setInventory(result);
+        hidden = getHiddenSlots(holder, player, layout);
+        result.setContents(layout.getStaticLayer());
+        renderHiddenSlots(result, layout, hidden & ~layout.viewSlots);
+        renderAnimatedSlots(result, layout, layout.animatedSlots & ~hidden & ~layout.viewSlots);
+        renderPlayerSlots(holder, layout, layout.playerDependentSlots & ~hidden & ~layout.viewSlots, true);
+        if (layout.viewSlots != 0)
+            renderView(holder, layout.viewSlots);
+        return result;
+    }
+
+    /** Render slots whose contents are specific to the view of a session (See {@link #getViewSlots()}).
+     * @since 1.0
+     * @param session The session to render.
+     * @param slots The bitmap of the slots to render.
+     */
+    protected void renderView(FastInventoryHolder session, long slots) {
+    }
+
+    /** Execute the click of a player on a slot whose contents are specific to its view (See {@link #getViewSlots()}).
+     * @since 1.0
+     * @param event The click event.
+     * @param player The player who clicked.
+     * @param slot The clicked slot.
+     * @return Returns true if the click is handled, otherwise returns false to execute the button of the slot.
+     */
+    protected boolean executeView(InventoryClickEvent event, HumanEntity player, int slot) {
+        return false;
+    }
+
+    /** Render the slots whose button is hidden to the viewer, with the item under the button.
+     * @since 1.0
+     * @param inventory The Bukkit inventory to render.
+     * @param layout The layout to render.
+     * @param slots The bitmap of the hidden slots to render.
+     */
+    private static void renderHiddenSlots(Inventory inventory, Layout layout, long slots) {
+        int slot;
+
+        while (slots != 0) {
+            slot = Long.numberOfTrailingZeros(slots);
+            slots &= slots - 1;
+            inventory.setItem(slot, layout.getHiddenItem(slot));
         }
-        for (Button button : this.buttons) {
-            if (button instanceof ItemButton) {
-                itemButton = (ItemButton) button;
-                result.setItem(itemButton.slot, itemButton.getItemStack(player));
+    }
+
+    /** Give the conditional slots hidden to a player. They are evaluated once per session until the conditional buttons change,
+     * the players having the same permissions sharing the same evaluation (See {@link Button#setPermission(String)}).
+     * @since 1.0
+     * @param session The session of the player, or null.
+     * @param player The player.
+     * @param layout The layout.
+     * @return Returns the bitmap of the hidden slots.
+     */
+    private long getHiddenSlots(FastInventoryHolder session, HumanEntity player, Layout layout) {
+        Object rules;
+        long visible;
+
+        if (layout.conditionalSlots == 0 || player == null)
+            return 0L;
+        rules = layout.getVisibilityRules();
+        if (session != null && !session.isShared() && session.getVisibilityRules() == rules)
+            return layout.conditionalSlots & ~session.getVisibleSlots();
+        visible = layout.getVisibleSlots(player);
+        if (session != null && !session.isShared())
+            session.setVisibleSlots(rules, visible);
+        return layout.conditionalSlots & ~visible;
+    }
+
+    /** Evaluate again the buttons visible to a player, after a change of his permissions, rank or progress.
+     * @since 1.0
+     * @param player The player.
+     */
+    public void invalidateVisibility(HumanEntity player) {
+        FastInventoryHolder session;
+
+        if (player == null)
+            return;
+        session = this.viewers.get(player.getUniqueId());
+        if (session != null && !session.isShared())
+            session.setVisibleSlots(null, 0L);
+        markDirty(this.layout.conditionalSlots);
+    }
+
+    /** Render the current frames of animated buttons, which are the same for all players.
+     * @since 1.0
+     * @param inventory The Bukkit inventory to render.
+     * @param layout The layout to render.
+     * @param slots The bitmap of the slots to render (Only slots of animated buttons).
+     */
+    private static void renderAnimatedSlots(Inventory inventory, Layout layout, long slots) {
+        int slot;
+
+        while (slots != 0) {
+            slot = Long.numberOfTrailingZeros(slots);
+            slots &= slots - 1;
+            inventory.setItem(slot, ((ItemButton) layout.buttons[slot]).getItemStack(null));
+        }
+    }
+
+    /** Render the items depending on the player of a session.
+     * @since 1.0
+     * @param session The session to render.
+     * @param layout The layout to render.
+     * @param slots The bitmap of the slots to render (Only slots of buttons depending on the player).
+     * @param placeholder True to display the placeholder item while rendering outside the main thread.
+     */
+    private void renderPlayerSlots(FastInventoryHolder session, Layout layout, long slots, boolean placeholder) {
+        Inventory inventory = session.getInventory();
+        long remaining = slots;
+        int slot;
+
+        if (slots == 0)
+            return;
+        if (!this.asyncRender) {
+            while (slots != 0) {
+                slot = Long.numberOfTrailingZeros(slots);
+                slots &= slots - 1;
+                inventory.setItem(slot, ((ItemButton) layout.buttons[slot]).getItemStack(session.getViewer()));
             }
+            return;
         }
-        return result;
+        while (placeholder && remaining != 0) {
+            slot = Long.numberOfTrailingZeros(remaining);
+            remaining &= remaining - 1;
+            inventory.setItem(slot, FrozenItem.unwrap(this.renderPlaceholder));
+        }
+        this.manager.getRenderer().submit(session, layout, slots);
+    }
+
+    /** Render again the items depending on the viewer of a session and its view slots, once the state of the viewer is loaded (Main thread only).
+     * @since 1.0
+     * @param session The session to render.
+     */
+    void renderState(FastInventoryHolder session) {
+        Layout layout = this.layout;
+        long hidden;
+
+        if (session.isShared() || session.isClosed() || getSession(session.getViewer()) != session)
+            return;
+        hidden = getHiddenSlots(session, session.getViewer(), layout);
+        renderPlayerSlots(session, layout, layout.playerDependentSlots & ~hidden & ~layout.viewSlots, false);
+        if (layout.viewSlots != 0)
+            renderView(session, layout.viewSlots);
+    }
+
+    /** Send the slots changed since the last refresh to the players viewing the inventory.
+     * @since 1.0
+     */
+    void refreshViewers() {
+        long slots = this.dirtySlots.getAndSet(0L);
+        Layout layout = this.layout;
+        ItemStack[] staticLayer;
+        Inventory inventory;
+        long remaining;
+        long hidden;
+        int slot;
+
+        if (slots == 0 || this.viewers.isEmpty())
+            return;
+        if (this.sharedSession != null && !this.sharedViewers.isEmpty())
+            renderShared(this.sharedSession, layout, slots);
+        staticLayer = layout.getStaticLayer();
+        for (FastInventoryHolder session : this.viewers.values()) {
+            if (session.isShared() || getSession(session.getViewer()) != session)
+                continue;
+            inventory = session.getInventory();
+            hidden = getHiddenSlots(session, session.getViewer(), layout);
+            remaining = slots & ~layout.playerDependentSlots & ~layout.animatedSlots & ~hidden & ~layout.viewSlots;
+            while (remaining != 0) {
+                slot = Long.numberOfTrailingZeros(remaining);
+                remaining &= remaining - 1;
+                inventory.setItem(slot, staticLayer[slot]);
+            }
+            renderHiddenSlots(inventory, layout, slots & hidden & ~layout.viewSlots);
+            renderAnimatedSlots(inventory, layout, slots & layout.animatedSlots & ~hidden & ~layout.viewSlots);
+            renderPlayerSlots(session, layout, slots & layout.playerDependentSlots & ~hidden & ~layout.viewSlots, false);
+            if ((slots & layout.viewSlots) != 0)
+                renderView(session, slots & layout.viewSlots);
+        }
+    }
+
+    /** Give the session of this inventory currently opened by the player.
+     * @since 1.0
+     * @param player The player.
+     * @return Returns the session, otherwise returns null if the player is not viewing this inventory.
+     */
+    protected FastInventoryHolder getSession(HumanEntity player) {
+        InventoryHolder holder;
+
+        if (player.getOpenInventory() == null)
+            return null;
+        holder = player.getOpenInventory().getTopInventory().getHolder();
+        if (!(holder instanceof FastInventoryHolder) || ((FastInventoryHolder) holder).getFastInventory() != this
+        || ((FastInventoryHolder) holder).isClosed())
+            return null;
+        return (FastInventoryHolder) holder;
+    }
+
+    /** Render again, for all players, the buttons invalidated by a key.
+     * @since 1.0
+     * @param key The invalidation key (See {@link CustomItemButton#enableRenderCache(int, long, String...)}).
+     */
+    public void invalidateRender(String key) {
+        invalidateRender(key, null);
+    }
+
+    /** Render again, for a player, the buttons invalidated by a key.
+     * @since 1.0
+     * @param key The invalidation key (See {@link CustomItemButton#enableRenderCache(int, long, String...)}).
+     * @param player The player, or null for all players.
+     */
+    public void invalidateRender(String key, HumanEntity player) {
+        Layout layout = this.layout;
+        long slots = layout.playerDependentSlots;
+        CustomItemButton button;
+        int slot;
+
+        while (slots != 0) {
+            slot = Long.numberOfTrailingZeros(slots);
+            slots &= slots - 1;
+            if (!(layout.buttons[slot] instanceof CustomItemButton))
+                continue;
+            button = (CustomItemButton) layout.buttons[slot];
+            if (key != null && !button.hasInvalidationKey(key))
+                continue;
+            if (player == null)
+                button.invalidateRender();
+            else
+                button.invalidateRender(player);
+        }
+    }
+
+    /** Render again, for a player, all the buttons depending on the player.
+     * @since 1.0
+     * @param player The player.
+     */
+    public void invalidateRender(HumanEntity player) {
+        if (player != null)
+            invalidateRender(null, player);
     }
 
     /** Removes all inventory items except button items.
      * @since 1.0
      */
     public void clearItems() {
-        this.fillItem = null;
-        for (int i = 0; i < this.inventorySize; i++)
-            this.contents[i] = null;
+        editLayout(builder -> {
+            builder.clearContents();
+            return true;
+        });
     }
 
     /** Removes all buttons from inventory.
      * @since 1.0
      */
     public void clearButtons() {
-        this.buttons.clear();
+        editLayout(builder -> {
+            builder.clearButtons();
+            return true;
+        });
     }
 
     /** Remove items and buttons from inventory.
      * @since 1.0
      */
     public void clear() {
-        clearItems();
-        clearButtons();
+        edit(fastInventory -> {
+            fastInventory.clearItems();
+            fastInventory.clearButtons();
+        });
     }
 
     /** Open the inventory to the player and adapt the buttons to him.
@@ -355,18 +1112,161 @@ public class FastInventory {
      */
     public boolean openInventory(HumanEntity player, String title) {
         Inventory inventory;
+        FastInventoryHolder holder;
+        Layout layout;
+        long start = Metrics.start();
 
-        if (player == null)
+        if (player == null || this.disposed)
             return false;
-        if (this.viewers.contains(player)) {
+        // Never waits for the state of the player, the inventory is rendered again if it is still being loaded.
+        this.manager.requireState(player);
+        holder = this.viewers.get(player.getUniqueId());
+        if (holder != null) {
             player.closeInventory();
-            this.viewers.remove(player);
+            closeSession(holder, player);
         }
-        inventory = buildInventory(player, title);
+        layout = this.layout;
+        holder = isShared(layout) ? getSharedSession(title, layout) : null;
+        if (holder != null)
+            inventory = holder.getInventory();
+        else
+            inventory = buildInventory(player, title, layout);
         if (inventory == null)
             return false;
+        holder = (FastInventoryHolder) inventory.getHolder();
+        this.metrics.recordOpen(start);
         player.openInventory(inventory);
-        this.viewers.add(player);
+        if (getSession(player) != holder) {
+            if (!holder.isShared())
+                holder.close();
+            return false;
+        }
+        this.viewers.put(player.getUniqueId(), holder);
+        if (holder.isShared())
+            this.sharedViewers.put(player.getUniqueId(), player);
+        if (this.layout != layout)
+            markDirty((1L << this.inventorySize) - 1);
+        scheduleAnimations(this.layout);
+        return true;
+    }
+
+    /** Show the inventory to a player in the window he has open, without closing it, when the window has the same size and title.
+     * Only the slots which differ from the previous menu are sent, and the session of the window is moved to this inventory.
+     * Otherwise, the inventory is opened as usual (See {@link #openInventory(HumanEntity, String)}).
+     * @since 1.0
+     * @param player The player to use for his point of view.
+     * @param title The title that the inventory will have.
+     * @return Returns true if the inventory is shown, otherwise returns false on error.
+     */
+    public boolean switchInventory(HumanEntity player, String title) {
+        InventoryHolder openHolder;
+        FastInventoryHolder holder;
+        FastInventory previous;
+        Layout layout;
+        long start = Metrics.start();
+
+        if (player == null || this.disposed || player.getOpenInventory() == null)
+            return false;
+        openHolder = player.getOpenInventory().getTopInventory().getHolder();
+        if (!(openHolder instanceof FastInventoryHolder))
+            return openInventory(player, title);
+        holder = (FastInventoryHolder) openHolder;
+        if (holder.isShared() || holder.isClosed() || holder.getViewer() != player || holder.getInventory().getSize() != this.inventorySize
+        || title == null || !title.equals(player.getOpenInventory().getTitle()))
+            return openInventory(player, title);
+        previous = holder.getFastInventory();
+        if (previous == this)
+            return true;
+        if (previous.viewers.get(player.getUniqueId()) == holder)
+            previous.closeInventory(player);
+        this.sharedViewers.remove(player.getUniqueId());
+        holder.setFastInventory(this);
+        layout = this.layout;
+        renderSwitched(holder, layout);
+        this.metrics.recordOpen(start);
+        this.viewers.put(player.getUniqueId(), holder);
+        if (this.layout != layout)
+            markDirty((1L << this.inventorySize) - 1);
+        scheduleAnimations(this.layout);
+        return true;
+    }
+
+    /** Render a layout in a window which displayed another menu, sending only the shared slots whose item differs.
+     * @since 1.0
+     * @param session The session moved to this inventory.
+     * @param layout The layout to render.
+     */
+    private void renderSwitched(FastInventoryHolder session, Layout layout) {
+        Inventory inventory = session.getInventory();
+        ItemStack[] displayed = inventory.getContents();
+        ItemStack[] staticLayer = layout.getStaticLayer();
+        long hidden = getHiddenSlots(session, session.getViewer(), layout);
+        long slots = ((1L << this.inventorySize) - 1) & ~(layout.playerDependentSlots & ~hidden) & ~layout.viewSlots;
+        ItemStack itemStack;
+        int slot;
+
+        while (slots != 0) {
+            slot = Long.numberOfTrailingZeros(slots);
+            slots &= slots - 1;
+            if ((hidden & (1L << slot)) != 0)
+                itemStack = layout.getHiddenItem(slot);
+            else if ((layout.animatedSlots & (1L << slot)) != 0)
+                itemStack = ((ItemButton) layout.buttons[slot]).getItemStack(null);
+            else
+                itemStack = staticLayer[slot];
+            if (!Objects.equals(displayed[slot], itemStack))
+                inventory.setItem(slot, itemStack);
+        }
+        renderPlayerSlots(session, layout, layout.playerDependentSlots & ~hidden & ~layout.viewSlots, true);
+        if (layout.viewSlots != 0)
+            renderView(session, layout.viewSlots);
+    }
+
+    /** Check if a session left by its viewer can be opened again as it is, as long as the inventory does not change.
+     * The shared sessions and the sessions waiting for a refresh or an asynchronous render can't.
+     * @since 1.0
+     * @param session The session left by its viewer.
+     * @return Returns true if the session can be resumed, otherwise returns false.
+     */
+    boolean isResumable(FastInventoryHolder session) {
+        return !session.isShared() && !this.asyncRender && this.dirtySlots.get() == 0;
+    }
+
+    /** Open again to its viewer a session he left, without building it again (See {@link Navigation#back()}).
+     * The slots specific to the view are rendered again, since they do not depend on the layout.
+     * @since 1.0
+     * @param player The player.
+     * @param session The session left by the player.
+     * @param layoutVersion The layout version when the player left the session.
+     * @param renderVersion The render version when the player left the session.
+     * @return Returns true if the session opens, otherwise returns false if it is no longer up to date or on error.
+     */
+    boolean resumeInventory(HumanEntity player, FastInventoryHolder session, int layoutVersion, int renderVersion) {
+        FastInventoryHolder holder;
+        Layout layout = this.layout;
+        long start = Metrics.start();
+
+        if (player == null || this.disposed || session.getFastInventory() != this || session.getViewer() != player || layout.version != layoutVersion
+        || this.renderVersion.get() != renderVersion)
+            return false;
+        holder = this.viewers.get(player.getUniqueId());
+        if (holder != null) {
+            player.closeInventory();
+            closeSession(holder, player);
+        }
+        session.reopen();
+        this.metrics.recordOpen(start);
+        player.openInventory(session.getInventory());
+        if (getSession(player) != session) {
+            session.close();
+            return false;
+        }
+        this.viewers.put(player.getUniqueId(), session);
+        if (layout.viewSlots != 0)
+            renderView(session, layout.viewSlots);
+        if (this.layout != layout)
+            markDirty((1L << this.inventorySize) - 1);
+        scheduleAnimations(this.layout);
         return true;
     }
 
@@ -378,7 +1278,79 @@ public class FastInventory {
     public boolean closeInventory(HumanEntity player) {
         if (player == null)
             return false;
-        return this.viewers.remove(player);
+        this.sharedViewers.remove(player.getUniqueId());
+        if (this.viewers.remove(player.getUniqueId()) == null)
+            return false;
+        if (this.disposeOnClose && this.viewers.isEmpty())
+            scheduleDisposal();
+        return true;
+    }
+
+    /** Dispose the inventory at the next tick if nobody has opened it again in the meantime.
+     * @since 1.0
+     */
+    private void scheduleDisposal() {
+        Plugin plugin = this.manager.getPlugin();
+
+        if (!plugin.isEnabled())
+            return;
+        plugin.getServer().getScheduler().runTask(plugin, () -> {
+            if (this.viewers.isEmpty())
+                dispose();
+        });
+    }
+
+    /** Define if the inventory is disposed once its last viewer has closed it, for menus built for a single use (Search results...).
+     * @since 1.0
+     * @param disposeOnClose True to dispose the inventory when it is no longer viewed.
+     */
+    public void setDisposeOnClose(boolean disposeOnClose) {
+        this.disposeOnClose = disposeOnClose;
+    }
+
+    /** Notifies the inventory that a player is closing a session. A shared session stays open for its other viewers.
+     * @since 1.0
+     * @param holder The session closed by the player.
+     * @param player The player closing the session.
+     */
+    void closeSession(FastInventoryHolder holder, HumanEntity player) {
+        if (holder.isClosed())
+            return;
+        if (!holder.isShared())
+            holder.close();
+        if (this.viewers.get(player.getUniqueId()) == holder)
+            closeInventory(player);
+    }
+
+    /** Close the inventory for all its viewers, then unregister it from its manager. It can no longer be opened.
+     * @since 1.0
+     */
+    public void dispose() {
+        if (this.disposed)
+            return;
+        this.disposed = true;
+        for (HumanEntity player : new ArrayList<>(this.sharedViewers.values())) {
+            if (getSession(player) == this.sharedSession)
+                player.closeInventory();
+            closeSession(this.sharedSession, player);
+        }
+        if (this.sharedSession != null)
+            this.sharedSession.close();
+        this.sharedSession = null;
+        for (FastInventoryHolder session : new ArrayList<>(this.viewers.values())) {
+            if (getSession(session.getViewer()) == session)
+                session.getViewer().closeInventory();
+            closeSession(session, session.getViewer());
+        }
+        this.manager.unregister(this);
+    }
+
+    /** Check if the inventory is disposed.
+     * @since 1.0
+     * @return Returns true if the inventory is disposed, otherwise returns false.
+     */
+    public boolean isDisposed() {
+        return this.disposed;
     }
 
     /** Check if the inventory is open for the player you want.
@@ -387,7 +1359,7 @@ public class FastInventory {
      * @return Returns true if the inventory is currently open for the player, otherwise returns false.
      */
     public boolean isInventoryOpen(HumanEntity player) {
-        return player != null && this.viewers.contains(player);
+        return player != null && this.viewers.containsKey(player.getUniqueId());
     }
 
     /** Execute the click of the player in the inventory on the desired slot.
@@ -397,30 +1369,38 @@ public class FastInventory {
      * @return Returns true if the inventory to perform the action, otherwise returns false.
      */
     public boolean playerExecute(InventoryClickEvent event, HumanEntity player, int slot) {
-        Button defaultButton;
-
-        if (player == null || !this.viewers.contains(player))
+        if (player == null || !this.viewers.containsKey(player.getUniqueId()))
             return false;
-        for (Button button : this.buttons) {
-            if (button.slot == slot) {
-                button.execute(event, player);
-                return true;
-            }
-        }
-        if (this.defaultButton == null)
-            return true;
-        defaultButton = new Button(this, slot, this.defaultButton, this.defaultButtonEvent) {
-            @Override
-            public void remove() {
-                getFastInventory().defaultButton = null;
-            }
-
-            @Override
-            public int hashCode() {
-                return Objects.hashCode(getFastInventory());
-            }
-        };
-        defaultButton.execute(event, player);
+        execute(event, player, slot);
         return true;
     }
+
+    /** Execute the click of a viewer already known to have the inventory open.
+     * @since 1.0
+     * @param event The click event.
+     * @param player The player who clicked.
+     * @param slot The clicked slot.
+     * @return Returns what happened to the click.
+     */
+    ClickOutcome execute(InventoryClickEvent event, HumanEntity player, int slot) {
+        Layout layout = this.layout;
+        Button button;
+
+        button = slot >= 0 && slot < this.inventorySize ? layout.buttons[slot] : null;
+        if (button != null && (layout.conditionalSlots & (1L << slot)) != 0
+        && (getHiddenSlots(this.viewers.get(player.getUniqueId()), player, layout) & (1L << slot)) != 0)
+            button = null;
+        if (!this.manager.getClickLimiter().tryClick(player, button))
+            return ClickOutcome.RATE_LIMITED;
+        if ((layout.viewSlots & (1L << slot)) != 0 && executeView(event, player, slot))
+            return ClickOutcome.VIEW;
+        if (button != null) {
+            button.execute(event, player);
+            return ClickOutcome.BUTTON;
+        }
+        if (layout.defaultButtons == null)
+            return ClickOutcome.NO_BUTTON;
+        layout.defaultButtons[slot >= 0 && slot < this.inventorySize ? slot : this.inventorySize].execute(event, player);
+        return ClickOutcome.DEFAULT;
+    }
 }
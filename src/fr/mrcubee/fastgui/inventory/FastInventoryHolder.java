@@ -0,0 +1,187 @@
+package fr.mrcubee.fastgui.inventory;
+
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
+
+/** This class is the holder of the inventories built by FastGUI. It links a Bukkit inventory to its FastInventory and viewer.
+ * @author MrCubee
+ * @Contributor Lightnew
+ * @version 1.0
+ * @since 1.0
+ */
+public class FastInventoryHolder implements InventoryHolder {
+
+    /**
+     * The inventory displayed by the Bukkit inventory, which changes when the viewer switches to another menu in place.
+     */
+    private volatile FastInventory fastInventory;
+
+    /**
+     * The player for whom the inventory was built, or null if the inventory is shared by its viewers.
+     */
+    private final HumanEntity viewer;
+
+    /**
+     * The Bukkit inventory held.
+     */
+    private Inventory inventory;
+
+    /**
+     * True once the viewer has closed the inventory.
+     */
+    private volatile boolean closed;
+
+    /**
+     * The visibility rules for which the visible slots were evaluated (null if not evaluated).
+     */
+    private Object visibilityRules;
+
+    /**
+     * The bitmap of the conditional slots visible to the viewer (See {@link Button#isVisible(HumanEntity)}).
+     */
+    private long visibleSlots;
+
+    /**
+     * The version given to the last asynchronous render of the session (Main thread only).
+     */
+    private int renderVersion;
+
+    /**
+     * The version of the last asynchronous render applied to each slot, allocated on first use (Main thread only).
+     */
+    private int[] appliedRenderVersions;
+
+    /** Create the holder of an inventory built for a specific player.
+     * @since 1.0
+     * @param fastInventory The inventory that builds the Bukkit inventory.
+     * @param viewer The player for whom the inventory is built, or null if the inventory is shared by its viewers.
+     */
+    protected FastInventoryHolder(FastInventory fastInventory, HumanEntity viewer) {
+        this.fastInventory = fastInventory;
+        this.viewer = viewer;
+        this.inventory = null;
+        this.closed = false;
+        this.visibilityRules = null;
+        this.visibleSlots = 0L;
+        this.renderVersion = 0;
+        this.appliedRenderVersions = null;
+    }
+
+    /** Set the Bukkit inventory held, once created.
+     * @since 1.0
+     * @param inventory The Bukkit inventory.
+     */
+    void setInventory(Inventory inventory) {
+        this.inventory = inventory;
+    }
+
+    /** Move the session to another inventory, which now displays its contents (See {@link FastInventory#switchInventory(HumanEntity, String)}).
+     * @since 1.0
+     * @param fastInventory The inventory displayed by the Bukkit inventory.
+     */
+    void setFastInventory(FastInventory fastInventory) {
+        this.fastInventory = fastInventory;
+        this.visibilityRules = null;
+    }
+
+    /** Keep the conditional slots visible to the viewer for some visibility rules (Main thread only).
+     * @since 1.0
+     * @param visibilityRules The visibility rules, or null to evaluate them again.
+     * @param visibleSlots The bitmap of the visible conditional slots.
+     */
+    void setVisibleSlots(Object visibilityRules, long visibleSlots) {
+        this.visibilityRules = visibilityRules;
+        this.visibleSlots = visibleSlots;
+    }
+
+    /** Give the visibility rules for which the visible slots were evaluated (Main thread only).
+     * @since 1.0
+     * @return Returns the visibility rules, or null if they are not evaluated.
+     */
+    Object getVisibilityRules() {
+        return this.visibilityRules;
+    }
+
+    /** Give the conditional slots visible to the viewer (Main thread only).
+     * @since 1.0
+     * @return Returns the bitmap of the visible conditional slots.
+     */
+    long getVisibleSlots() {
+        return this.visibleSlots;
+    }
+
+    /** Give a version to a new asynchronous render of the session (Main thread only).
+     * @since 1.0
+     * @return Returns the version, greater than the previous ones.
+     */
+    int nextRenderVersion() {
+        return ++this.renderVersion;
+    }
+
+    /** Record that an asynchronous render is applied to a slot, unless a newer one was already applied (Main thread only).
+     * @since 1.0
+     * @param slot The slot.
+     * @param version The version of the render.
+     * @return Returns true if the render can be applied, otherwise returns false if it is older than the applied one.
+     */
+    boolean applyRenderVersion(int slot, int version) {
+        if (this.appliedRenderVersions == null)
+            this.appliedRenderVersions = new int[this.inventory.getSize()];
+        if (version <= this.appliedRenderVersions[slot])
+            return false;
+        this.appliedRenderVersions[slot] = version;
+        return true;
+    }
+
+    /** Mark the session as closed.
+     * @since 1.0
+     */
+    void close() {
+        this.closed = true;
+    }
+
+    /** Mark the session as open again, when its viewer comes back to it (See {@link Navigation#back()}).
+     * @since 1.0
+     */
+    void reopen() {
+        this.closed = false;
+    }
+
+    /** Give the inventory displayed by the Bukkit inventory.
+     * @since 1.0
+     * @return Returns the FastInventory.
+     */
+    public FastInventory getFastInventory() {
+        return this.fastInventory;
+    }
+
+    /** Give the player for whom the inventory was built.
+     * @since 1.0
+     * @return Returns the viewer, otherwise returns null if the inventory is shared by its viewers.
+     */
+    public HumanEntity getViewer() {
+        return this.viewer;
+    }
+
+    /** Check if the inventory is shared by its viewers (See {@link ShareMode}).
+     * @since 1.0
+     * @return Returns true if the inventory is shared, otherwise returns false.
+     */
+    public boolean isShared() {
+        return this.viewer == null;
+    }
+
+    /** Check if the viewer has closed the inventory (A shared inventory is closed once it is no longer used).
+     * @since 1.0
+     * @return Returns true if the inventory is closed, otherwise returns false.
+     */
+    public boolean isClosed() {
+        return this.closed;
+    }
+
+    @Override
+    public Inventory getInventory() {
+        return this.inventory;
+    }
+}
@@ -1,12 +1,41 @@
 package fr.mrcubee.fastgui.inventory;
 
-import fr.mrcubee.fastgui.tool.WeakHashSet;
+import fr.mrcubee.fastgui.FastGUI;
+import fr.mrcubee.fastgui.journal.ClickJournal;
+import fr.mrcubee.fastgui.journal.ClickOutcome;
+import fr.mrcubee.fastgui.metric.Metrics;
+import fr.mrcubee.fastgui.state.PlayerState;
+import fr.mrcubee.fastgui.state.PlayerStateStore;
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.HandlerList;
 import org.bukkit.event.Listener;
 import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerKickEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.server.PluginDisableEvent;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
 
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /** This class manages the inventory created by a plugin.
  * @author MrCubee
@@ -17,12 +46,356 @@ import java.util.Set;
 public class FastInventoryManager implements Listener {
 
     /**
-     * Inventories created by the plugin.
+     * Inventories created by the plugin and not yet disposed.
      */
-    private final Set<FastInventory> inventories;
+    private final InventoryRegistry inventories;
 
-    public FastInventoryManager() {
-        this.inventories = new WeakHashSet<>();
+    /**
+     * The plugin that owns the manager.
+     */
+    private final Plugin plugin;
+
+    /**
+     * Inventories whose viewers must be refreshed at the next tick.
+     */
+    private List<FastInventory> refreshQueue;
+
+    /**
+     * The task refreshing the viewers, or null if no refresh is scheduled.
+     */
+    private BukkitTask refreshTask;
+
+    /**
+     * The timing wheel driving the animated buttons of all the inventories.
+     */
+    private final TimingWheel timingWheel;
+
+    /**
+     * The task advancing the timing wheel every tick, or null if no button is animated.
+     */
+    private BukkitTask animationTask;
+
+    /**
+     * The renderer of the items depending on the player outside the main thread.
+     */
+    private final AsyncRenderer renderer;
+
+    /**
+     * The worker pool of the manager, created on first use.
+     */
+    private ExecutorService executor;
+
+    /**
+     * The limiter of the clicks of the players.
+     */
+    private final ClickLimiter clickLimiter;
+
+    /**
+     * The navigations of the players through the menus of the manager (Main thread only).
+     */
+    private final Map<UUID, Navigation> navigations;
+
+    /**
+     * The journal recording the clicks, or null.
+     */
+    private volatile ClickJournal clickJournal;
+
+    /**
+     * The id of the manager in the sources of the click journal.
+     */
+    private volatile int clickJournalSource;
+
+    /**
+     * The store of the states of the players, or null.
+     */
+    private volatile PlayerStateStore stateStore;
+
+    /**
+     * The id given to the next inventory created.
+     */
+    private int nextInventoryId;
+
+    /**
+     * True once the manager is disposed.
+     */
+    private volatile boolean disposed;
+
+    /** Create the inventory manager of a plugin.
+     * @since 1.0
+     * @param plugin The plugin that owns the manager.
+     */
+    public FastInventoryManager(Plugin plugin) {
+        this.inventories = new InventoryRegistry();
+        this.plugin = plugin;
+        this.refreshQueue = new ArrayList<>();
+        this.refreshTask = null;
+        this.timingWheel = new TimingWheel(64);
+        this.animationTask = null;
+        this.renderer = new AsyncRenderer(this, 64);
+        this.executor = null;
+        this.clickLimiter = new ClickLimiter();
+        this.navigations = new HashMap<>();
+        this.clickJournal = null;
+        this.clickJournalSource = 0;
+        this.stateStore = null;
+        this.nextInventoryId = 0;
+        this.disposed = false;
+    }
+
+    /** Give an id to a new inventory.
+     * @since 1.0
+     * @return Returns the id.
+     */
+    synchronized int nextInventoryId() {
+        return this.nextInventoryId++;
+    }
+
+    /** Give the number of inventories created by the manager and not yet disposed.
+     * @since 1.0
+     * @return Returns the number of inventories.
+     */
+    public int getInventoryCount() {
+        return this.inventories.size();
+    }
+
+    /** Give the number of players viewing the inventories of the manager.
+     * @since 1.0
+     * @return Returns the number of viewers.
+     */
+    public int getViewerCount() {
+        return this.inventories.stream().mapToInt(FastInventory::getViewerCount).sum();
+    }
+
+    /** Give the number of buttons of the inventories of the manager.
+     * @since 1.0
+     * @return Returns the number of buttons.
+     */
+    public int getButtonCount() {
+        return this.inventories.stream().mapToInt(FastInventory::getButtonCount).sum();
+    }
+
+    /** Give the inventories created by the manager and not yet disposed.
+     * The stream can be run in parallel and is not affected by inventories created or disposed meanwhile.
+     * @since 1.0
+     * @return Returns the stream of the inventories.
+     */
+    public Stream<FastInventory> getInventories() {
+        return this.inventories.stream();
+    }
+
+    /** Give an inventory created by the manager.
+     * @since 1.0
+     * @param id The id of the inventory (See {@link FastInventory#getId()}).
+     * @return Returns the inventory, otherwise returns null if no inventory has this id or if it is disposed.
+     */
+    public FastInventory getInventory(int id) {
+        return this.inventories.get(id);
+    }
+
+    /** Define if an inventory dropped without being disposed is unregistered once collected by the garbage collector (Enabled by default).
+     * Otherwise, the manager keeps the inventories until {@link FastInventory#dispose()} is called.
+     * @since 1.0
+     * @param safetyNet True to enable the safety net, otherwise false.
+     */
+    public void setReferenceSafetyNet(boolean safetyNet) {
+        this.inventories.setSafetyNet(safetyNet);
+    }
+
+    /** Check if an inventory dropped without being disposed is unregistered once collected by the garbage collector.
+     * @since 1.0
+     * @return Returns true if the safety net is enabled, otherwise returns false.
+     */
+    public boolean isReferenceSafetyNet() {
+        return this.inventories.isSafetyNet();
+    }
+
+    /** Give the plugin that owns the manager.
+     * @since 1.0
+     * @return Returns the plugin.
+     */
+    public Plugin getPlugin() {
+        return this.plugin;
+    }
+
+    /** Give the limiter of the clicks of the players, to define their click budget.
+     * @since 1.0
+     * @return Returns the click limiter.
+     */
+    public ClickLimiter getClickLimiter() {
+        return this.clickLimiter;
+    }
+
+    /** Define the journal recording the clicks made in the inventories of the manager.
+     * The journal is not closed by the manager, several managers can record into the same journal,
+     * the manager being registered as a source named after its plugin (See {@link ClickJournal#addSource(String)}).
+     * @since 1.0
+     * @param clickJournal The journal, or null to stop recording the clicks.
+     * @return Returns true if the journal is defined, otherwise returns false if the manager can't be registered as a source of the journal.
+     */
+    public synchronized boolean setClickJournal(ClickJournal clickJournal) {
+        int source = clickJournal == null ? 0 : clickJournal.addSource(this.plugin.getName());
+
+        if (source < 0)
+            return false;
+        this.clickJournalSource = source;
+        this.clickJournal = clickJournal;
+        return true;
+    }
+
+    /** Give the journal recording the clicks made in the inventories of the manager.
+     * @since 1.0
+     * @return Returns the journal, or null if the clicks are not recorded.
+     */
+    public ClickJournal getClickJournal() {
+        return this.clickJournal;
+    }
+
+    /** Define the store of the states of the players. The state of a player is loaded in the background when he joins
+     * (and at once for the players already online), saved when he closes an inventory of the manager and dropped when he leaves.
+     * The store is closed when the manager is disposed, and the previous store is closed (its changes written) before being replaced.
+     * @since 1.0
+     * @param stateStore The store, or null to stop using it.
+     */
+    public synchronized void setStateStore(PlayerStateStore stateStore) {
+        PlayerStateStore previous = this.stateStore;
+
+        if (previous != null && previous != stateStore)
+            previous.close();
+        this.stateStore = stateStore;
+        if (stateStore == null)
+            return;
+        for (HumanEntity player : this.plugin.getServer().getOnlinePlayers())
+            stateStore.preload(player.getUniqueId());
+    }
+
+    /** Give the store of the states of the players.
+     * @since 1.0
+     * @return Returns the store, or null if it is not defined.
+     */
+    public PlayerStateStore getStateStore() {
+        return this.stateStore;
+    }
+
+    /** Give the state of a player, loading it the first time (Waiting for it if it is still being loaded in the background).
+     * The state of a player who has left is only given while it is in memory, it is not loaded again.
+     * @since 1.0
+     * @param player The player.
+     * @return Returns the state, or null if the manager has no state store or the player has left.
+     */
+    public PlayerState getState(HumanEntity player) {
+        PlayerStateStore stateStore = this.stateStore;
+
+        if (stateStore == null || player == null)
+            return null;
+        if (player instanceof Player && !((Player) player).isOnline())
+            return stateStore.getLoadedState(player.getUniqueId());
+        return stateStore.getState(player.getUniqueId());
+    }
+
+    /** Give the state of a player if it is in memory, without waiting for the disk (Used while rendering the inventories).
+     * @since 1.0
+     * @param player The player.
+     * @return Returns the state, or null if the manager has no state store or the state is not loaded yet.
+     */
+    public PlayerState getLoadedState(HumanEntity player) {
+        PlayerStateStore stateStore = this.stateStore;
+
+        if (stateStore == null || player == null)
+            return null;
+        return stateStore.getLoadedState(player.getUniqueId());
+    }
+
+    /** Make sure the state of a player opening an inventory is being loaded, without waiting for it.
+     * Once loaded, the inventory he is viewing is rendered again with his state.
+     * @since 1.0
+     * @param player The player.
+     */
+    void requireState(HumanEntity player) {
+        PlayerStateStore stateStore = this.stateStore;
+
+        if (stateStore == null || player == null || stateStore.isLoaded(player.getUniqueId()))
+            return;
+        stateStore.preload(player.getUniqueId()).thenRun(() -> {
+            if (this.plugin.isEnabled())
+                this.plugin.getServer().getScheduler().runTask(this.plugin, () -> stateLoaded(player));
+        });
+    }
+
+    /** Render again the inventory viewed by a player whose state is loaded (Main thread only).
+     * @since 1.0
+     * @param player The player.
+     */
+    private void stateLoaded(HumanEntity player) {
+        FastInventoryHolder session = player.getOpenInventory() == null ? null : getSession(player.getOpenInventory().getTopInventory());
+
+        if (session != null)
+            session.getFastInventory().renderState(session);
+    }
+
+    /** Give the navigation of a player through the menus of the manager, creating it if needed (Main thread only).
+     * @since 1.0
+     * @param player The player.
+     * @return Returns the navigation of the player.
+     */
+    public Navigation getNavigation(HumanEntity player) {
+        return this.navigations.computeIfAbsent(player.getUniqueId(), uuid -> new Navigation(this, player));
+    }
+
+    /** Release the navigation of a player, unless it is opening a menu.
+     * @since 1.0
+     * @param player The player.
+     */
+    private void releaseNavigation(HumanEntity player) {
+        Navigation navigation = this.navigations.get(player.getUniqueId());
+
+        if (navigation != null && !navigation.isNavigating())
+            this.navigations.remove(player.getUniqueId());
+    }
+
+    /** Give the worker pool of the manager, creating it on first use.
+     * @since 1.0
+     * @return Returns the worker pool.
+     */
+    synchronized ExecutorService getExecutor() {
+        AtomicInteger threadCount;
+        ThreadFactory threadFactory;
+
+        if (this.executor != null)
+            return this.executor;
+        threadCount = new AtomicInteger();
+        threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "FastGUI Worker #" + threadCount.incrementAndGet() + " (" + this.plugin.getName() + ")");
+
+            thread.setDaemon(true);
+            return thread;
+        };
+        this.executor = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors() / 2), threadFactory);
+        return this.executor;
+    }
+
+    /** Give the renderer of the items depending on the player outside the main thread.
+     * @since 1.0
+     * @return Returns the renderer.
+     */
+    AsyncRenderer getRenderer() {
+        return this.renderer;
+    }
+
+    /** Set the maximum number of asynchronous renders given to the worker pool at the same time.
+     * Renders beyond this limit wait their turn, and those of closed inventories are dropped.
+     * @since 1.0
+     * @param maxPendingRenders The maximum number of renders.
+     */
+    public void setMaxPendingRenders(int maxPendingRenders) {
+        this.renderer.setMaxPending(maxPendingRenders);
+    }
+
+    /** Give the number of asynchronous renders not yet applied.
+     * @since 1.0
+     * @return Returns the number of renders.
+     */
+    public int getPendingRenders() {
+        return this.renderer.getPendingCount();
     }
 
     /** Create an inventory.
@@ -33,31 +406,248 @@ public class FastInventoryManager implements Listener {
     public FastInventory createInventory(int line) {
         FastInventory fastInventory;
 
-        if (line < 1 || line > 6)
+        if (line < 1 || line > 6 || this.disposed)
             return null;
-        fastInventory = new FastInventory(line * 9);
-        this.inventories.add(fastInventory);
+        fastInventory = new FastInventory(this, line * 9);
+        this.inventories.register(fastInventory);
         return fastInventory;
     }
 
+    /** Create an inventory displaying the entries of a data source page by page.
+     * @since 1.0
+     * @param line Number of lines that the inventory must have. (Between 1 and 6 inclusive)
+     * @param source The data source of the entries.
+     * @param renderer The function giving the item which represents an entry.
+     * @param action The action to be performed when a player clicks on an entry.
+     * @param <T> The type of the entries.
+     * @return Returns the created inventory. On error, returns null.
+     */
+    public <T> PaginatedInventory<T> createPaginatedInventory(int line, PageSource<? extends T> source,
+                                                              Function<? super T, ItemStack> renderer, BiConsumer<? super T, ? super HumanEntity> action) {
+        PaginatedInventory<T> paginatedInventory;
+
+        if (line < 1 || line > 6 || source == null || renderer == null || this.disposed)
+            return null;
+        paginatedInventory = new PaginatedInventory<>(this, line * 9, source, renderer, action);
+        this.inventories.register(paginatedInventory);
+        return paginatedInventory;
+    }
+
+    /** Unregister a disposed inventory.
+     * @since 1.0
+     * @param fastInventory The disposed inventory.
+     */
+    void unregister(FastInventory fastInventory) {
+        this.inventories.unregister(fastInventory);
+    }
+
+    /** Dispose all the inventories of the manager, stop its worker pool and unregister it.
+     * Called when the plugin is disabled.
+     * @since 1.0
+     */
+    public void dispose() {
+        if (this.disposed)
+            return;
+        this.disposed = true;
+        for (FastInventory fastInventory : this.inventories.stream().collect(Collectors.toList()))
+            fastInventory.dispose();
+        this.navigations.clear();
+        synchronized (this) {
+            if (this.refreshTask != null)
+                this.refreshTask.cancel();
+            this.refreshTask = null;
+            this.refreshQueue.clear();
+            if (this.animationTask != null)
+                this.animationTask.cancel();
+            this.animationTask = null;
+            this.timingWheel.clear();
+            if (this.executor != null)
+                this.executor.shutdownNow();
+        }
+        if (this.stateStore != null)
+            this.stateStore.close();
+        HandlerList.unregisterAll(this);
+        FastGUI.removeInventoryManager(this);
+    }
+
+    /** Check if the manager is disposed.
+     * @since 1.0
+     * @return Returns true if the manager is disposed, otherwise returns false.
+     */
+    public boolean isDisposed() {
+        return this.disposed;
+    }
+
+    /** Queue an inventory to refresh its viewers at the next tick, from any thread.
+     * @since 1.0
+     * @param fastInventory The inventory to refresh.
+     */
+    synchronized void queueRefresh(FastInventory fastInventory) {
+        if (this.disposed)
+            return;
+        this.refreshQueue.add(fastInventory);
+        if (this.refreshTask == null)
+            this.refreshTask = this.plugin.getServer().getScheduler().runTask(this.plugin, this::refresh);
+    }
+
+    /** Refresh the viewers of all queued inventories.
+     * @since 1.0
+     */
+    private void refresh() {
+        List<FastInventory> queue;
+
+        synchronized (this) {
+            queue = this.refreshQueue;
+            if (this.refreshTask != null)
+                this.refreshTask.cancel();
+            this.refreshTask = null;
+            this.refreshQueue = new ArrayList<>();
+        }
+        for (FastInventory fastInventory : queue)
+            fastInventory.refreshViewers();
+    }
+
+    /** Put an animated button in the timing wheel, from any thread. The wheel runs only while it has buttons.
+     * @since 1.0
+     * @param button The button to animate.
+     */
+    synchronized void scheduleAnimation(AnimatedButton button) {
+        if (this.disposed)
+            return;
+        this.timingWheel.schedule(button);
+        if (this.animationTask == null)
+            this.animationTask = this.plugin.getServer().getScheduler().runTaskTimer(this.plugin, this::animate, 1L, 1L);
+    }
+
+    /** Advance the timing wheel by one tick. The frames changed at this tick are sent at once,
+     * in a single pass per viewer, instead of waiting for the next tick.
+     * @since 1.0
+     */
+    private void animate() {
+        if (this.timingWheel.advance() > 0)
+            refresh();
+        synchronized (this) {
+            if (!this.timingWheel.isEmpty() || this.animationTask == null)
+                return;
+            this.animationTask.cancel();
+            this.animationTask = null;
+        }
+    }
+
+    /** Give the session of an inventory built by this manager.
+     * @since 1.0
+     * @param inventory The Bukkit inventory.
+     * @return Returns the session holding the inventory, otherwise returns null if the inventory does not come from this manager.
+     */
+    private FastInventoryHolder getSession(Inventory inventory) {
+        InventoryHolder holder;
+        FastInventoryHolder fastHolder;
+
+        if (inventory == null)
+            return null;
+        holder = inventory.getHolder();
+        if (!(holder instanceof FastInventoryHolder))
+            return null;
+        fastHolder = (FastInventoryHolder) holder;
+        if (fastHolder.getFastInventory().getManager() != this)
+            return null;
+        return fastHolder;
+    }
+
     @EventHandler
     public void inventoryClickEvent(InventoryClickEvent event) {
+        Inventory topInventory;
+        FastInventoryHolder session;
+        FastInventory fastInventory;
+        HumanEntity player;
+        ClickJournal clickJournal;
+        ClickOutcome outcome;
+        int rawSlot;
+        long start;
+
         if (event == null)
             return;
-        for (FastInventory fastInventory : this.inventories) {
-            if (fastInventory.playerExecute(event, event.getWhoClicked(), event.getSlot())
-            || fastInventory.isInventoryOpen(event.getWhoClicked())) {
-                event.setCancelled(true);
-                return;
-            }
-        }
+        topInventory = event.getView().getTopInventory();
+        session = getSession(topInventory);
+        if (session == null)
+            return;
+        start = Metrics.start();
+        event.setCancelled(true);
+        rawSlot = event.getRawSlot();
+        if (rawSlot < 0 || rawSlot >= topInventory.getSize())
+            return;
+        fastInventory = session.getFastInventory();
+        player = event.getWhoClicked();
+        if (session.isClosed())
+            outcome = ClickOutcome.IGNORED;
+        else if (session.isShared() ? fastInventory.isInventoryOpen(player) : session.getViewer() == player)
+            outcome = fastInventory.execute(event, player, rawSlot);
+        else
+            outcome = ClickOutcome.IGNORED;
+        clickJournal = this.clickJournal;
+        if (clickJournal != null && player != null)
+            clickJournal.record(this.clickJournalSource, player.getUniqueId(), fastInventory.getId(), rawSlot, event.getClick(), outcome);
+        if (outcome != ClickOutcome.IGNORED)
+            fastInventory.getMetrics().recordClick(rawSlot, start);
     }
 
     @EventHandler
     public void inventoryCloseEvent(InventoryCloseEvent event) {
+        FastInventoryHolder session;
+
         if (event == null)
             return;
-        for (FastInventory fastInventory : this.inventories)
-            fastInventory.closeInventory(event.getPlayer());
+        session = getSession(event.getView().getTopInventory());
+        if (session == null)
+            return;
+        session.getFastInventory().closeSession(session, event.getPlayer());
+        releaseNavigation(event.getPlayer());
+        if (this.stateStore != null)
+            this.stateStore.save(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler
+    public void playerJoinEvent(PlayerJoinEvent event) {
+        if (event != null && this.stateStore != null)
+            this.stateStore.preload(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler
+    public void playerQuitEvent(PlayerQuitEvent event) {
+        if (event == null)
+            return;
+        closeSession(event.getPlayer());
+        this.navigations.remove(event.getPlayer().getUniqueId());
+        this.clickLimiter.removePlayer(event.getPlayer().getUniqueId());
+        if (this.stateStore != null)
+            this.stateStore.unload(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler(ignoreCancelled = true)
+    public void playerKickEvent(PlayerKickEvent event) {
+        if (event == null)
+            return;
+        closeSession(event.getPlayer());
+        this.navigations.remove(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler
+    public void pluginDisableEvent(PluginDisableEvent event) {
+        if (event != null && event.getPlugin() == this.plugin)
+            dispose();
+    }
+
+    /** Close the session of this manager opened by a player leaving the server.
+     * @since 1.0
+     * @param player The player.
+     */
+    private void closeSession(HumanEntity player) {
+        FastInventoryHolder session;
+
+        if (player.getOpenInventory() == null)
+            return;
+        session = getSession(player.getOpenInventory().getTopInventory());
+        if (session != null)
+            session.getFastInventory().closeSession(session, player);
     }
 }
@@ -0,0 +1,64 @@
+package fr.mrcubee.fastgui.inventory;
+
+import org.bukkit.inventory.ItemStack;
+
+/** This class represents an item which no longer changes, so that it can be shared by all inventories and players without copy.
+ * The item is copied once when it is frozen, then only when a copy is explicitly requested for modification.
+ * @author MrCubee
+ * @Contributor Lightnew
+ * @version 1.0
+ * @since 1.0
+ */
+public final class FrozenItem {
+
+    /**
+     * The frozen item, which must never be modified.
+     */
+    private final ItemStack itemStack;
+
+    /** Create the instance of a frozen item.
+     * @since 1.0
+     * @param itemStack The item to freeze (Already copied).
+     */
+    private FrozenItem(ItemStack itemStack) {
+        this.itemStack = itemStack;
+    }
+
+    /** Freeze a copy of an item. Later changes of the given item have no effect on the frozen item.
+     * @since 1.0
+     * @param itemStack The item to freeze.
+     * @return Returns the frozen item, otherwise returns null if the item is null.
+     */
+    public static FrozenItem of(ItemStack itemStack) {
+        if (itemStack == null)
+            return null;
+        return new FrozenItem(itemStack.clone());
+    }
+
+    /** Give the shared instance of the frozen item. It must be read only, use {@link #copy()} to get an item to modify.
+     * @since 1.0
+     * @return Returns the shared item.
+     */
+    public ItemStack getItemStack() {
+        return this.itemStack;
+    }
+
+    /** Give a copy of the frozen item, which can be modified.
+     * @since 1.0
+     * @return Returns the copy.
+     */
+    public ItemStack copy() {
+        return this.itemStack.clone();
+    }
+
+    /** Give the shared instance of a frozen item.
+     * @since 1.0
+     * @param frozenItem The frozen item, or null.
+     * @return Returns the shared item, otherwise returns null if the frozen item is null.
+     */
+    static ItemStack unwrap(FrozenItem frozenItem) {
+        if (frozenItem == null)
+            return null;
+        return frozenItem.itemStack;
+    }
+}
@@ -0,0 +1,140 @@
+package fr.mrcubee.fastgui.inventory;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/** This class registers the inventories of a manager by id, until they are disposed.
+ * With the safety net, an inventory dropped without being disposed is also unregistered once collected by the garbage collector.
+ * @author MrCubee
+ * @Contributor Lightnew
+ * @version 1.0
+ * @since 1.0
+ */
+final class InventoryRegistry {
+
+    /**
+     * The registrations of the inventories, by id.
+     */
+    private final Map<Integer, Registration> registrations;
+
+    /**
+     * The queue of the registrations whose inventory has been collected.
+     */
+    private final ReferenceQueue<FastInventory> queue;
+
+    /**
+     * True if the inventories are only weakly referenced, so that they are unregistered once collected.
+     */
+    private volatile boolean safetyNet;
+
+    /** Create an empty registry.
+     * @since 1.0
+     */
+    InventoryRegistry() {
+        this.registrations = new ConcurrentHashMap<>();
+        this.queue = new ReferenceQueue<>();
+        this.safetyNet = true;
+    }
+
+    /** Register an inventory.
+     * @since 1.0
+     * @param fastInventory The inventory to register.
+     */
+    void register(FastInventory fastInventory) {
+        expunge();
+        this.registrations.put(fastInventory.getId(), new Registration(fastInventory, this.queue, this.safetyNet));
+    }
+
+    /** Unregister an inventory.
+     * @since 1.0
+     * @param fastInventory The inventory to unregister.
+     * @return Returns true if the inventory was registered, otherwise returns false.
+     */
+    boolean unregister(FastInventory fastInventory) {
+        Registration registration = this.registrations.get(fastInventory.getId());
+
+        if (registration == null || registration.get() != fastInventory)
+            return false;
+        return this.registrations.remove(fastInventory.getId(), registration);
+    }
+
+    /** Give a registered inventory.
+     * @since 1.0
+     * @param id The id of the inventory.
+     * @return Returns the inventory, otherwise returns null if no inventory is registered with this id.
+     */
+    FastInventory get(int id) {
+        Registration registration = this.registrations.get(id);
+
+        if (registration == null)
+            return null;
+        return registration.get();
+    }
+
+    /** Give the number of registered inventories.
+     * @since 1.0
+     * @return Returns the number of inventories.
+     */
+    int size() {
+        expunge();
+        return this.registrations.size();
+    }
+
+    /** Give the registered inventories. The stream can be run in parallel and is not affected by concurrent changes.
+     * @since 1.0
+     * @return Returns the stream of the inventories.
+     */
+    Stream<FastInventory> stream() {
+        expunge();
+        return this.registrations.values().stream().map(Reference::get).filter(Objects::nonNull);
+    }
+
+    /** Define if the inventories are only weakly referenced, so that an inventory dropped without being disposed is unregistered once collected.
+     * Otherwise, the registry keeps the inventories until they are disposed.
+     * @since 1.0
+     * @param safetyNet True to only weakly reference the inventories, otherwise false.
+     */
+    void setSafetyNet(boolean safetyNet) {
+        this.safetyNet = safetyNet;
+        for (Registration registration : this.registrations.values())
+            registration.strongReference = safetyNet ? null : registration.get();
+    }
+
+    /** Check if the inventories are only weakly referenced.
+     * @since 1.0
+     * @return Returns true if the safety net is enabled, otherwise returns false.
+     */
+    boolean isSafetyNet() {
+        return this.safetyNet;
+    }
+
+    /** Unregister the inventories collected by the garbage collector.
+     * @since 1.0
+     */
+    private void expunge() {
+        Reference<? extends FastInventory> reference;
+
+        while ((reference = this.queue.poll()) != null)
+            this.registrations.remove(((Registration) reference).id, reference);
+    }
+
+    /**
+     * The registration of an inventory.
+     */
+    private static final class Registration extends WeakReference<FastInventory> {
+
+        private final int id;
+        private volatile FastInventory strongReference;
+
+        private Registration(FastInventory fastInventory, ReferenceQueue<FastInventory> queue, boolean safetyNet) {
+            super(fastInventory, queue);
+            this.id = fastInventory.getId();
+            this.strongReference = safetyNet ? null : fastInventory;
+        }
+    }
+}
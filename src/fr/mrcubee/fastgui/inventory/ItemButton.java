@@ -16,9 +16,9 @@ import java.util.function.Consumer;
 public class ItemButton extends Button {
 
     /**
-     * The item that represents the button.
+     * The item that represents the button, shared by all players.
      */
-    private final ItemStack itemStack;
+    private final FrozenItem item;
 
     /** Create the instance of a item button for a specific inventory.
      * @since 1.0
@@ -28,16 +28,44 @@ public class ItemButton extends Button {
      * @param itemStack The item that represents the button.
      */
     public ItemButton(FastInventory fastInventory, int slot, BiConsumer<? super Button, ? super HumanEntity> action, ItemStack itemStack, Consumer<? super InventoryClickEvent> event) {
+        this(fastInventory, slot, action, FrozenItem.of(itemStack), event);
+    }
+
+    /** Create the instance of a item button for a specific inventory, with an item which can be shared with other buttons.
+     * @since 1.0
+     * @param fastInventory The inventory where the button is placed.
+     * @param slot The inventory slot where the button is placed.
+     * @param action The action to be performed by the button.
+     * @param item The frozen item that represents the button.
+     */
+    public ItemButton(FastInventory fastInventory, int slot, BiConsumer<? super Button, ? super HumanEntity> action, FrozenItem item, Consumer<? super InventoryClickEvent> event) {
         super(fastInventory, slot, action, event);
-        this.itemStack = itemStack;
+        this.item = item;
     }
 
     /** This function gives the item which represents the button according to the player making the request.
+     * The item may be shared by all players, so it must be read only.
      * @since 1.0
      * @param player The player who wants to have the item.
      * @return The item requested by the player.
      */
     public ItemStack getItemStack(HumanEntity player) {
-        return this.itemStack.clone();
+        return FrozenItem.unwrap(this.item);
+    }
+
+    /** Give the frozen item that represents the button, before any change depending on the player.
+     * @since 1.0
+     * @return Returns the frozen item, or null if the button has no item.
+     */
+    public FrozenItem getFrozenItem() {
+        return this.item;
+    }
+
+    /** Check if the item of the button depends on the player. Subclasses changing the item according to the player must return true.
+     * @since 1.0
+     * @return Returns true if the item must be rendered for each player, otherwise returns false.
+     */
+    public boolean isPlayerDependent() {
+        return false;
     }
 }
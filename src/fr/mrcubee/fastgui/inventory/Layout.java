@@ -0,0 +1,476 @@
+package fr.mrcubee.fastgui.inventory;
+
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/** This class is an immutable snapshot of the layout of an inventory (items, fill item, buttons and default button).
+ * A change builds a new snapshot, so that the snapshot being read is never modified.
+ * @author MrCubee
+ * @Contributor Lightnew
+ * @version 1.0
+ * @since 1.0
+ */
+final class Layout {
+
+    /**
+     * The version of the layout, incremented by each commit.
+     */
+    final int version;
+
+    /**
+     * The contents of the inventory (Without the item buttons), indexed by slot.
+     */
+    final FrozenItem[] contents;
+
+    /**
+     * The element to use to fill all free slots.
+     */
+    final FrozenItem fillItem;
+
+    /**
+     * The inventory buttons, indexed by slot.
+     */
+    final Button[] buttons;
+
+    /**
+     * The bitmap of the slots occupied by a button (bit n for slot n).
+     */
+    final long buttonSlots;
+
+    /**
+     * The bitmap of the slots occupied by a button whose item depends on the player.
+     */
+    final long playerDependentSlots;
+
+    /**
+     * The bitmap of the slots occupied by an animated button, whose item changes over time (See {@link AnimatedButton}).
+     */
+    final long animatedSlots;
+
+    /**
+     * The bitmap of the slots occupied by a button visible to some players only (See {@link Button#isConditional()}).
+     */
+    final long conditionalSlots;
+
+    /**
+     * The bitmap of the slots rendered for each viewer by {@link FastInventory#renderView(FastInventoryHolder, long)}.
+     */
+    final long viewSlots;
+
+    /**
+     * The instances of the default button indexed by slot, followed by the instance of the slot -1 (null if there is no default button).
+     */
+    final Button[] defaultButtons;
+
+    /**
+     * The pre-rendered contents shared by all players, rendered on first use.
+     */
+    private volatile ItemStack[] staticLayer;
+
+    /**
+     * The visibility rules of the conditional buttons, built on first use and kept by the next layouts
+     * as long as the conditional buttons do not change.
+     */
+    private volatile Visibility visibility;
+
+    /** Create an empty layout.
+     * @since 1.0
+     * @param inventorySize The size of the inventory (the number of slots).
+     */
+    Layout(int inventorySize) {
+        this.version = 0;
+        this.contents = new FrozenItem[inventorySize];
+        this.fillItem = null;
+        this.buttons = new Button[inventorySize];
+        this.buttonSlots = 0L;
+        this.playerDependentSlots = 0L;
+        this.animatedSlots = 0L;
+        this.conditionalSlots = 0L;
+        this.viewSlots = 0L;
+        this.defaultButtons = null;
+        this.staticLayer = null;
+        this.visibility = null;
+    }
+
+    /** Create the layout committed by a builder.
+     * @since 1.0
+     * @param builder The builder.
+     */
+    private Layout(Builder builder) {
+        this.version = builder.base.version + 1;
+        this.contents = builder.contents;
+        this.fillItem = builder.fillItem;
+        this.buttons = builder.buttons;
+        this.buttonSlots = builder.buttonSlots;
+        this.playerDependentSlots = builder.playerDependentSlots;
+        this.animatedSlots = builder.animatedSlots;
+        this.conditionalSlots = builder.conditionalSlots;
+        this.viewSlots = builder.viewSlots;
+        this.defaultButtons = builder.defaultButtons;
+        this.staticLayer = null;
+        this.visibility = builder.visibilityChanged ? null : builder.base.visibility;
+    }
+
+    /** Give the contents shared by all players, rendering them on first use.
+     * The slots of the buttons depending on the player and of the animated buttons are left empty.
+     * @since 1.0
+     * @return Returns the static layer.
+     */
+    ItemStack[] getStaticLayer() {
+        ItemStack[] layer = this.staticLayer;
+        Button button;
+
+        if (layer != null)
+            return layer;
+        layer = new ItemStack[this.buttons.length];
+        for (int i = 0; i < layer.length; i++) {
+            button = this.buttons[i];
+            if (button instanceof ItemButton)
+                layer[i] = ((this.playerDependentSlots | this.animatedSlots) & (1L << i)) != 0 ? null : ((ItemButton) button).getItemStack(null);
+            else if (this.contents[i] != null)
+                layer[i] = this.contents[i].getItemStack();
+            else
+                layer[i] = FrozenItem.unwrap(this.fillItem);
+        }
+        this.staticLayer = layer;
+        return layer;
+    }
+
+    /** Give the item displayed in a slot when its button is hidden: the item of the slot, or the fill item.
+     * @since 1.0
+     * @param slot The slot.
+     * @return Returns the item, or null if the slot is empty.
+     */
+    ItemStack getHiddenItem(int slot) {
+        return FrozenItem.unwrap(this.contents[slot] != null ? this.contents[slot] : this.fillItem);
+    }
+
+    /** Evaluate the conditional slots visible to a player.
+     * @since 1.0
+     * @param player The player.
+     * @return Returns the bitmap of the visible conditional slots.
+     */
+    long getVisibleSlots(HumanEntity player) {
+        if (this.conditionalSlots == 0)
+            return 0L;
+        return getVisibilityRules().getVisibleSlots(player, this);
+    }
+
+    /** Give the visibility rules of the conditional buttons, building them on first use.
+     * The same rules are given by the next layouts until a conditional button changes.
+     * @since 1.0
+     * @return Returns the visibility rules.
+     */
+    Visibility getVisibilityRules() {
+        Visibility rules = this.visibility;
+
+        if (rules == null) {
+            rules = new Visibility(this);
+            this.visibility = rules;
+        }
+        return rules;
+    }
+
+    /** Start a change of the layout.
+     * @since 1.0
+     * @return Returns a builder initialized with this layout.
+     */
+    Builder edit() {
+        return new Builder(this);
+    }
+
+    /**
+     * The builder of the next layout, which is not shared until it is committed.
+     */
+    static final class Builder {
+
+        private final Layout base;
+        private FrozenItem[] contents;
+        private FrozenItem fillItem;
+        private Button[] buttons;
+        private long buttonSlots;
+        private long playerDependentSlots;
+        private long animatedSlots;
+        private long conditionalSlots;
+        private long viewSlots;
+        private Button[] defaultButtons;
+        private boolean changed;
+        private long changedSlots;
+        private boolean visibilityChanged;
+
+        private Builder(Layout base) {
+            this.base = base;
+            this.contents = base.contents;
+            this.fillItem = base.fillItem;
+            this.buttons = base.buttons;
+            this.buttonSlots = base.buttonSlots;
+            this.playerDependentSlots = base.playerDependentSlots;
+            this.animatedSlots = base.animatedSlots;
+            this.conditionalSlots = base.conditionalSlots;
+            this.viewSlots = base.viewSlots;
+            this.defaultButtons = base.defaultButtons;
+            this.changed = false;
+            this.changedSlots = 0L;
+            this.visibilityChanged = false;
+        }
+
+        /** Mark slots as changed.
+         * @since 1.0
+         * @param slots The bitmap of the changed slots.
+         */
+        private void changed(long slots) {
+            this.changed = true;
+            this.changedSlots |= slots;
+        }
+
+        /** Give the contents to modify, copied on the first change.
+         * @since 1.0
+         * @return Returns the contents of the builder.
+         */
+        private FrozenItem[] contents() {
+            if (this.contents == this.base.contents)
+                this.contents = this.contents.clone();
+            return this.contents;
+        }
+
+        /** Give the buttons to modify, copied on the first change.
+         * @since 1.0
+         * @return Returns the buttons of the builder.
+         */
+        private Button[] buttons() {
+            if (this.buttons == this.base.buttons)
+                this.buttons = this.buttons.clone();
+            return this.buttons;
+        }
+
+        void setContent(int slot, FrozenItem item) {
+            contents()[slot] = item;
+            changed(1L << slot);
+        }
+
+        void clearContents() {
+            Arrays.fill(contents(), null);
+            this.fillItem = null;
+            changed((1L << this.contents.length) - 1);
+        }
+
+        void setFillItem(FrozenItem fillItem) {
+            this.fillItem = fillItem;
+            changed((1L << this.contents.length) - 1);
+        }
+
+        boolean addButton(Button button) {
+            long bit = 1L << button.slot;
+
+            if ((this.buttonSlots & bit) != 0)
+                return false;
+            buttons()[button.slot] = button;
+            this.buttonSlots |= bit;
+            if (button instanceof ItemButton && ((ItemButton) button).isPlayerDependent())
+                this.playerDependentSlots |= bit;
+            if (button instanceof AnimatedButton)
+                this.animatedSlots |= bit;
+            if (button.isConditional()) {
+                this.conditionalSlots |= bit;
+                this.visibilityChanged = true;
+            }
+            changed(bit);
+            return true;
+        }
+
+        boolean removeButton(int slot) {
+            long bit = 1L << slot;
+
+            if ((this.buttonSlots & bit) == 0)
+                return false;
+            buttons()[slot] = null;
+            this.buttonSlots &= ~bit;
+            this.playerDependentSlots &= ~bit;
+            this.animatedSlots &= ~bit;
+            this.visibilityChanged |= (this.conditionalSlots & bit) != 0;
+            this.conditionalSlots &= ~bit;
+            changed(bit);
+            return true;
+        }
+
+        boolean removeButton(Button button) {
+            if (this.buttons[button.slot] != button)
+                return false;
+            return removeButton(button.slot);
+        }
+
+        void clearButtons() {
+            long slots = this.buttonSlots;
+
+            Arrays.fill(buttons(), null);
+            this.buttonSlots = 0L;
+            this.playerDependentSlots = 0L;
+            this.animatedSlots = 0L;
+            this.visibilityChanged |= this.conditionalSlots != 0;
+            this.conditionalSlots = 0L;
+            changed(slots);
+        }
+
+        boolean updateButton(Button button) {
+            long bit = 1L << button.slot;
+
+            if (this.buttons[button.slot] != button)
+                return false;
+            if (button.isConditional())
+                this.conditionalSlots |= bit;
+            else
+                this.conditionalSlots &= ~bit;
+            this.visibilityChanged = true;
+            changed(bit);
+            return true;
+        }
+
+        boolean setDefaultButton(Button[] defaultButtons) {
+            boolean existed = this.defaultButtons != null;
+
+            this.defaultButtons = defaultButtons;
+            changed(0L);
+            return existed;
+        }
+
+        void setViewSlots(long viewSlots) {
+            changed(this.viewSlots | viewSlots);
+            this.viewSlots = viewSlots;
+        }
+
+        /** Check if the builder changes the layout.
+         * @since 1.0
+         * @return Returns true if the layout is changed, otherwise returns false.
+         */
+        boolean isChanged() {
+            return this.changed;
+        }
+
+        /** Give the bitmap of the slots changed by the builder.
+         * @since 1.0
+         * @return Returns the bitmap of the changed slots.
+         */
+        long getChangedSlots() {
+            return this.changedSlots;
+        }
+
+        /** Build the next layout.
+         * @since 1.0
+         * @return Returns the new layout.
+         */
+        Layout build() {
+            return new Layout(this);
+        }
+    }
+
+    /**
+     * The visibility rules of the conditional buttons of a layout. The players having the same permissions share
+     * the same bitmap of visible slots, only the buttons with a condition are evaluated for each player.
+     */
+    private static final class Visibility {
+
+        /**
+         * The maximum number of permission sets kept.
+         */
+        private static final int MAX_FINGERPRINTS = 1024;
+
+        /**
+         * The distinct permissions of the buttons (At most 64).
+         */
+        private final String[] permissions;
+
+        /**
+         * The index of the permission of each slot in the permissions (-1 if none).
+         */
+        private final int[] permissionIndexes;
+
+        /**
+         * The bitmap of the slots only depending on a permission.
+         */
+        private final long permissionSlots;
+
+        /**
+         * The bitmap of the slots evaluated for each player.
+         */
+        private final long evaluatedSlots;
+
+        /**
+         * The bitmaps of the visible permission slots, by permission set fingerprint (Bit n if the player has the permission n).
+         */
+        private final Map<Long, Long> masks;
+
+        private Visibility(Layout layout) {
+            List<String> distinct = new ArrayList<>();
+            long permissionOnly = 0L;
+            long evaluated = 0L;
+            long slots = layout.conditionalSlots;
+            Button button;
+            int index;
+            int slot;
+
+            this.permissionIndexes = new int[layout.buttons.length];
+            Arrays.fill(this.permissionIndexes, -1);
+            while (slots != 0) {
+                slot = Long.numberOfTrailingZeros(slots);
+                slots &= slots - 1;
+                button = layout.buttons[slot];
+                index = button.getPermission() == null ? -1 : distinct.indexOf(button.getPermission());
+                if (button.getPermission() != null && index < 0 && distinct.size() < 64) {
+                    index = distinct.size();
+                    distinct.add(button.getPermission());
+                }
+                if (button.getVisibility() == null && index >= 0) {
+                    this.permissionIndexes[slot] = index;
+                    permissionOnly |= 1L << slot;
+                } else {
+                    evaluated |= 1L << slot;
+                }
+            }
+            this.permissions = distinct.toArray(new String[0]);
+            this.permissionSlots = permissionOnly;
+            this.evaluatedSlots = evaluated;
+            this.masks = new ConcurrentHashMap<>();
+        }
+
+        private long getVisibleSlots(HumanEntity player, Layout layout) {
+            long fingerprint = 0L;
+            Long mask;
+            long visible;
+            long slots;
+            int slot;
+
+            for (int i = 0; i < this.permissions.length; i++)
+                if (player.hasPermission(this.permissions[i]))
+                    fingerprint |= 1L << i;
+            mask = this.masks.get(fingerprint);
+            if (mask == null) {
+                visible = 0L;
+                slots = this.permissionSlots;
+                while (slots != 0) {
+                    slot = Long.numberOfTrailingZeros(slots);
+                    slots &= slots - 1;
+                    if ((fingerprint & (1L << this.permissionIndexes[slot])) != 0)
+                        visible |= 1L << slot;
+                }
+                mask = visible;
+                if (this.masks.size() < MAX_FINGERPRINTS)
+                    this.masks.put(fingerprint, mask);
+            }
+            visible = mask;
+            slots = this.evaluatedSlots;
+            while (slots != 0) {
+                slot = Long.numberOfTrailingZeros(slots);
+                slots &= slots - 1;
+                if (layout.buttons[slot].isVisible(player))
+                    visible |= 1L << slot;
+            }
+            return visible;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package fr.mrcubee.fastgui.inventory;
+
+import org.bukkit.entity.HumanEntity;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/** This class represents the navigation of a player through nested menus (Category, sub-category, item, confirmation...).
+ * The menus left by the player are kept in a bounded stack, and going back opens again the inventory already rendered
+ * as long as the menu has not changed in the meantime. The navigation is released when the player closes the menus or quits.
+ * Must be used on the main thread.
+ * @author MrCubee
+ * @Contributor Lightnew
+ * @version 1.0
+ * @since 1.0
+ */
+public class Navigation {
+
+    /**
+     * The manager of the navigation.
+     */
+    private final FastInventoryManager manager;
+
+    /**
+     * The player navigating.
+     */
+    private final HumanEntity player;
+
+    /**
+     * The menus left by the player, the last one on top.
+     */
+    private final Deque<Entry> stack;
+
+    /**
+     * The maximum number of menus kept in the stack.
+     */
+    private int maxDepth;
+
+    /**
+     * The menu viewed by the player, or null if none is opened through the navigation.
+     */
+    private Entry current;
+
+    /**
+     * True while the navigation opens a menu, so that closing the previous one does not release the navigation.
+     */
+    private boolean navigating;
+
+    /** Create the navigation of a player.
+     * @since 1.0
+     * @param manager The manager of the navigation.
+     * @param player The player navigating.
+     */
+    Navigation(FastInventoryManager manager, HumanEntity player) {
+        this.manager = manager;
+        this.player = player;
+        this.stack = new ArrayDeque<>();
+        this.maxDepth = 16;
+        this.current = null;
+        this.navigating = false;
+    }
+
+    /** Define the maximum number of menus kept in the stack. The oldest menus are forgotten first.
+     * @since 1.0
+     * @param maxDepth The maximum number of menus.
+     */
+    public void setMaxDepth(int maxDepth) {
+        this.maxDepth = Math.max(1, maxDepth);
+        while (this.stack.size() > this.maxDepth)
+            this.stack.removeFirst();
+    }
+
+    /** Give the number of menus the player can go back to.
+     * @since 1.0
+     * @return Returns the number of menus in the stack.
+     */
+    public int getDepth() {
+        return this.stack.size();
+    }
+
+    /** Give the menu viewed by the player.
+     * @since 1.0
+     * @return Returns the inventory, otherwise returns null if none is opened through the navigation.
+     */
+    public FastInventory getCurrent() {
+        return this.current == null ? null : this.current.fastInventory;
+    }
+
+    /** Open a menu to the player, keeping the menu he is leaving to go back to it.
+     * @since 1.0
+     * @param fastInventory The menu to open.
+     * @param title The title that the inventory will have.
+     * @return Returns true if the menu opens, otherwise returns false on error.
+     */
+    public boolean open(FastInventory fastInventory, String title) {
+        Entry left = leave();
+
+        if (fastInventory == null || fastInventory.getManager() != this.manager)
+            return false;
+        this.navigating = true;
+        try {
+            if (!fastInventory.openInventory(this.player, title))
+                return false;
+        } finally {
+            this.navigating = false;
+        }
+        if (left != null) {
+            this.stack.addLast(left);
+            if (this.stack.size() > this.maxDepth)
+                this.stack.removeFirst();
+        }
+        this.current = new Entry(fastInventory, title, null, 0, 0);
+        return true;
+    }
+
+    /** Go back to the previous menu. The inventory already rendered is opened again if the menu has not changed,
+     * otherwise the menu is built again. Menus which can no longer be opened are skipped.
+     * @since 1.0
+     * @return Returns true if a previous menu opens, otherwise returns false if there is none.
+     */
+    public boolean back() {
+        Entry previous;
+        boolean opened;
+
+        this.navigating = true;
+        try {
+            while ((previous = this.stack.pollLast()) != null) {
+                opened = previous.session != null && previous.fastInventory.resumeInventory(this.player, previous.session,
+                        previous.layoutVersion, previous.renderVersion);
+                if (!opened)
+                    opened = previous.fastInventory.openInventory(this.player, previous.title);
+                if (opened) {
+                    this.current = new Entry(previous.fastInventory, previous.title, null, 0, 0);
+                    return true;
+                }
+            }
+        } finally {
+            this.navigating = false;
+        }
+        return false;
+    }
+
+    /** Forget the menus left by the player.
+     * @since 1.0
+     */
+    public void clear() {
+        this.stack.clear();
+        this.current = null;
+    }
+
+    /** Check if the navigation is opening a menu.
+     * @since 1.0
+     * @return Returns true while a menu is opened by the navigation, otherwise returns false.
+     */
+    boolean isNavigating() {
+        return this.navigating;
+    }
+
+    /** Give the entry of the menu the player is leaving, with its rendered inventory if it can be opened again as it is.
+     * @since 1.0
+     * @return Returns the entry, otherwise returns null if the player is not viewing the current menu.
+     */
+    private Entry leave() {
+        FastInventory fastInventory;
+        FastInventoryHolder session;
+
+        if (this.current == null)
+            return null;
+        fastInventory = this.current.fastInventory;
+        session = fastInventory.getSession(this.player);
+        if (session == null)
+            return null;
+        if (!fastInventory.isResumable(session))
+            return new Entry(fastInventory, this.current.title, null, 0, 0);
+        return new Entry(fastInventory, this.current.title, session, fastInventory.getLayoutVersion(), fastInventory.getRenderVersion());
+    }
+
+    /**
+     * A menu of the navigation, with its rendered inventory if it can be opened again as it is.
+     */
+    private static final class Entry {
+
+        private final FastInventory fastInventory;
+        private final String title;
+        private final FastInventoryHolder session;
+        private final int layoutVersion;
+        private final int renderVersion;
+
+        private Entry(FastInventory fastInventory, String title, FastInventoryHolder session, int layoutVersion, int renderVersion) {
+            this.fastInventory = fastInventory;
+            this.title = title;
+            this.session = session;
+            this.layoutVersion = layoutVersion;
+            this.renderVersion = renderVersion;
+        }
+    }
+}
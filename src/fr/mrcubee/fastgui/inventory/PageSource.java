@@ -0,0 +1,27 @@
+package fr.mrcubee.fastgui.inventory;
+
+import java.util.List;
+
+/** This interface gives the entries displayed by a paginated inventory, one page at a time.
+ * @author MrCubee
+ * @Contributor Lightnew
+ * @version 1.0
+ * @since 1.0
+ * @param <T> The type of the entries.
+ */
+public interface PageSource<T> {
+
+    /** Give the total number of entries.
+     * @since 1.0
+     * @return Returns the number of entries.
+     */
+    int count();
+
+    /** Give a range of entries.
+     * @since 1.0
+     * @param offset The index of the first entry.
+     * @param limit The maximum number of entries to give.
+     * @return Returns the entries of the range.
+     */
+    List<T> fetch(int offset, int limit);
+}
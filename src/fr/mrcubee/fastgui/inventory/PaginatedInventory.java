@@ -0,0 +1,317 @@
+package fr.mrcubee.fastgui.inventory;
+
+import fr.mrcubee.fastgui.state.PlayerState;
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/** This class builds an inventory displaying the entries of a data source page by page.
+ * Only the pages being viewed are fetched, and the last viewed pages are kept in a small cache.
+ * @author MrCubee
+ * @Contributor Lightnew
+ * @version 1.0
+ * @since 1.0
+ * @param <T> The type of the entries.
+ */
+public class PaginatedInventory<T> extends FastInventory {
+
+    /**
+     * The data source of the entries.
+     */
+    private final PageSource<? extends T> source;
+
+    /**
+     * The function giving the item which represents an entry.
+     */
+    private final Function<? super T, ItemStack> renderer;
+
+    /**
+     * The action to be performed when a player clicks on an entry.
+     */
+    private final BiConsumer<? super T, ? super HumanEntity> action;
+
+    /**
+     * The slots displaying the entries, in display order.
+     */
+    private int[] contentSlots;
+
+    /**
+     * The index of each slot in the content slots (-1 if the slot does not display entries).
+     */
+    private final int[] contentIndexes;
+
+    /**
+     * The maximum number of pages kept in the cache.
+     */
+    private int pageCacheSize;
+
+    /**
+     * The last viewed pages, in access order.
+     */
+    private final LinkedHashMap<Integer, Page<T>> pageCache;
+
+    /**
+     * The page viewed by each player.
+     */
+    private final Map<UUID, Integer> viewedPages;
+
+    /**
+     * The key of the viewed page in the state of the players, or null if the page is not remembered.
+     */
+    private String pageStateKey;
+
+    /** Create a paginated inventory with a specific size (Multiple of 9 between 9 and 54 included).
+     * By default, all the rows except the last one display the entries.
+     * @since 1.0
+     * @param manager The manager that creates the inventory.
+     * @param inventorySize The size of the inventory (the number of slots).
+     * @param source The data source of the entries.
+     * @param renderer The function giving the item which represents an entry.
+     * @param action The action to be performed when a player clicks on an entry.
+     */
+    protected PaginatedInventory(FastInventoryManager manager, int inventorySize, PageSource<? extends T> source,
+                                 Function<? super T, ItemStack> renderer, BiConsumer<? super T, ? super HumanEntity> action) {
+        super(manager, inventorySize);
+        int[] slots = new int[inventorySize > 9 ? inventorySize - 9 : inventorySize];
+
+        this.source = source;
+        this.renderer = renderer;
+        this.action = action;
+        this.contentIndexes = new int[inventorySize];
+        this.pageCacheSize = 8;
+        this.pageCache = new LinkedHashMap<Integer, Page<T>>(16, 0.75F, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Page<T>> eldest) {
+                return size() > PaginatedInventory.this.pageCacheSize;
+            }
+        };
+        this.viewedPages = new HashMap<>();
+        this.pageStateKey = null;
+        for (int i = 0; i < slots.length; i++)
+            slots[i] = i;
+        setContentSlots(slots);
+    }
+
+    /** Define the slots displaying the entries.
+     * @since 1.0
+     * @param slots The slots, in display order.
+     * @return Returns true if the slots are defined, otherwise returns false on error.
+     */
+    public boolean setContentSlots(int... slots) {
+        long mask = 0L;
+
+        if (slots == null || slots.length == 0)
+            return false;
+        for (int slot : slots) {
+            if (slot < 0 || slot >= this.contentIndexes.length || (mask & (1L << slot)) != 0)
+                return false;
+            mask |= 1L << slot;
+        }
+        this.contentSlots = slots.clone();
+        Arrays.fill(this.contentIndexes, -1);
+        for (int i = 0; i < this.contentSlots.length; i++)
+            this.contentIndexes[this.contentSlots[i]] = i;
+        this.pageCache.clear();
+        setViewSlots(mask);
+        return true;
+    }
+
+    /** Define the maximum number of pages kept in the cache.
+     * @since 1.0
+     * @param pageCacheSize The maximum number of pages.
+     */
+    public void setPageCacheSize(int pageCacheSize) {
+        this.pageCacheSize = Math.max(1, pageCacheSize);
+    }
+
+    /** Remember the page viewed by each player in his state, to open the inventory again on this page (See {@link FastInventoryManager#setStateStore(fr.mrcubee.fastgui.state.PlayerStateStore)}).
+     * @since 1.0
+     * @param pageStateKey The key of the page in the state of the players, or null to forget the pages once the inventory is closed.
+     */
+    public void setPageStateKey(String pageStateKey) {
+        this.pageStateKey = pageStateKey;
+    }
+
+    /** Create the button which displays the previous page.
+     * @since 1.0
+     * @param slot The desired slot.
+     * @param itemStack The item that will represent the button.
+     * @return Returns the created button instance.
+     */
+    public ItemButton createPreviousPageButton(int slot, ItemStack itemStack) {
+        return createItemButton(slot, itemStack, (button, player) -> setPage(player, getPage(player) - 1), event -> {});
+    }
+
+    /** Create the button which displays the next page.
+     * @since 1.0
+     * @param slot The desired slot.
+     * @param itemStack The item that will represent the button.
+     * @return Returns the created button instance.
+     */
+    public ItemButton createNextPageButton(int slot, ItemStack itemStack) {
+        return createItemButton(slot, itemStack, (button, player) -> setPage(player, getPage(player) + 1), event -> {});
+    }
+
+    /** Give the number of entries displayed by a page.
+     * @since 1.0
+     * @return Returns the page size.
+     */
+    public int getPageSize() {
+        return this.contentSlots.length;
+    }
+
+    /** Give the number of pages.
+     * @since 1.0
+     * @return Returns the number of pages (At least 1).
+     */
+    public int getPageCount() {
+        int count = this.source.count();
+
+        return Math.max(1, (count + getPageSize() - 1) / getPageSize());
+    }
+
+    /** Give the page viewed by a player.
+     * @since 1.0
+     * @param player The player.
+     * @return Returns the index of the page (Starting at 0).
+     */
+    public int getPage(HumanEntity player) {
+        Integer page;
+        PlayerState state;
+
+        if (player == null)
+            return 0;
+        page = this.viewedPages.get(player.getUniqueId());
+        if (page != null)
+            return page;
+        state = this.pageStateKey != null ? getManager().getLoadedState(player) : null;
+        if (state == null)
+            return 0;
+        page = Math.max(0, Math.min(state.getInt(this.pageStateKey, 0), getPageCount() - 1));
+        if (isInventoryOpen(player))
+            this.viewedPages.put(player.getUniqueId(), page);
+        return page;
+    }
+
+    /** Display a page to a player. If the player is viewing the inventory, only the entry slots are updated.
+     * A player who is not viewing the inventory only gets the page in his state (See {@link #setPageStateKey(String)}),
+     * the next time he opens it. The page is only written in a state already loaded, the disk is never read.
+     * @since 1.0
+     * @param player The player.
+     * @param page The index of the page (Starting at 0).
+     * @return Returns true if the page is displayed, otherwise returns false if the page does not exist.
+     */
+    public boolean setPage(HumanEntity player, int page) {
+        FastInventoryHolder session;
+        PlayerState state;
+
+        if (player == null || page < 0 || page >= getPageCount())
+            return false;
+        if (isInventoryOpen(player))
+            this.viewedPages.put(player.getUniqueId(), page);
+        state = this.pageStateKey != null ? getManager().getLoadedState(player) : null;
+        if (state != null)
+            state.set(this.pageStateKey, page);
+        session = getSession(player);
+        if (session != null)
+            renderView(session, getViewSlots());
+        return true;
+    }
+
+    /** Fetch the pages again from the data source, for all the viewers.
+     * @since 1.0
+     */
+    public void refresh() {
+        this.pageCache.clear();
+        markDirty(getViewSlots());
+    }
+
+    /** Give a page, fetching it from the data source if it is not in the cache.
+     * @since 1.0
+     * @param index The index of the page.
+     * @return Returns the page.
+     */
+    private Page<T> fetchPage(int index) {
+        Page<T> page = this.pageCache.get(index);
+        List<? extends T> entries;
+        ItemStack[] items;
+
+        if (page != null)
+            return page;
+        entries = this.source.fetch(index * getPageSize(), getPageSize());
+        items = new ItemStack[entries.size()];
+        for (int i = 0; i < items.length; i++)
+            items[i] = this.renderer.apply(entries.get(i));
+        page = new Page<>(entries, items);
+        this.pageCache.put(index, page);
+        return page;
+    }
+
+    @Override
+    protected void renderView(FastInventoryHolder session, long slots) {
+        Page<T> page = fetchPage(getPage(session.getViewer()));
+        Inventory inventory = session.getInventory();
+        ItemStack itemStack;
+        int index;
+        int slot;
+
+        while (slots != 0) {
+            slot = Long.numberOfTrailingZeros(slots);
+            slots &= slots - 1;
+            index = this.contentIndexes[slot];
+            if (index >= 0 && index < page.items.length)
+                itemStack = page.items[index];
+            else if (getContentItem(slot) != null)
+                itemStack = getContentItem(slot);
+            else
+                itemStack = getFillItem();
+            inventory.setItem(slot, itemStack);
+        }
+    }
+
+    @Override
+    protected boolean executeView(InventoryClickEvent event, HumanEntity player, int slot) {
+        Page<T> page = this.pageCache.get(getPage(player));
+        int index = this.contentIndexes[slot];
+
+        if (page == null)
+            page = fetchPage(getPage(player));
+        if (index < 0 || index >= page.entries.size())
+            return false;
+        if (this.action != null)
+            this.action.accept(page.entries.get(index), player);
+        return true;
+    }
+
+    @Override
+    public boolean closeInventory(HumanEntity player) {
+        if (!super.closeInventory(player))
+            return false;
+        this.viewedPages.remove(player.getUniqueId());
+        return true;
+    }
+
+    /**
+     * The entries of a page and their items.
+     */
+    private static class Page<T> {
+
+        private final List<? extends T> entries;
+        private final ItemStack[] items;
+
+        private Page(List<? extends T> entries, ItemStack[] items) {
+            this.entries = entries;
+            this.items = items;
+        }
+    }
+}
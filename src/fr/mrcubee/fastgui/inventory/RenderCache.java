@@ -0,0 +1,145 @@
+package fr.mrcubee.fastgui.inventory;
+
+import org.bukkit.inventory.ItemStack;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/** This class keeps the items rendered for each player by a button, to avoid running the item editor again.
+ * The least recently used entries are evicted when the cache is full.
+ * @author MrCubee
+ * @Contributor Lightnew
+ * @version 1.0
+ * @since 1.0
+ */
+public class RenderCache {
+
+    /**
+     * The maximum number of players kept in the cache.
+     */
+    private final int maxSize;
+
+    /**
+     * The lifetime of an entry in milliseconds (0 if the entries do not expire).
+     */
+    private final long timeToLive;
+
+    /**
+     * The rendered items by player, in access order.
+     */
+    private final LinkedHashMap<UUID, CachedRender> entries;
+
+    /**
+     * The number of renders served by the cache.
+     */
+    private final LongAdder hits;
+
+    /**
+     * The number of renders that had to run the item editor.
+     */
+    private final LongAdder misses;
+
+    /** Create a render cache.
+     * @since 1.0
+     * @param maxSize The maximum number of players kept in the cache.
+     * @param timeToLive The lifetime of an entry in milliseconds (0 if the entries do not expire).
+     */
+    public RenderCache(int maxSize, long timeToLive) {
+        this.maxSize = Math.max(1, maxSize);
+        this.timeToLive = Math.max(0L, timeToLive);
+        this.entries = new LinkedHashMap<UUID, CachedRender>(16, 0.75F, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, CachedRender> eldest) {
+                return size() > RenderCache.this.maxSize;
+            }
+        };
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+    }
+
+    /** Give the item rendered for a player.
+     * @since 1.0
+     * @param player The unique id of the player.
+     * @return Returns the cached item, otherwise returns null if there is no valid entry.
+     */
+    public synchronized ItemStack get(UUID player) {
+        CachedRender entry = this.entries.get(player);
+
+        if (entry != null && entry.expireAt != 0 && entry.expireAt <= System.currentTimeMillis()) {
+            this.entries.remove(player);
+            entry = null;
+        }
+        if (entry == null) {
+            this.misses.increment();
+            return null;
+        }
+        this.hits.increment();
+        return entry.itemStack;
+    }
+
+    /** Keep the item rendered for a player.
+     * @since 1.0
+     * @param player The unique id of the player.
+     * @param itemStack The rendered item.
+     */
+    public synchronized void put(UUID player, ItemStack itemStack) {
+        long expireAt = this.timeToLive == 0 ? 0L : System.currentTimeMillis() + this.timeToLive;
+
+        this.entries.put(player, new CachedRender(itemStack, expireAt));
+    }
+
+    /** Remove the item rendered for a player.
+     * @since 1.0
+     * @param player The unique id of the player.
+     */
+    public synchronized void invalidate(UUID player) {
+        this.entries.remove(player);
+    }
+
+    /** Remove all the rendered items.
+     * @since 1.0
+     */
+    public synchronized void invalidateAll() {
+        this.entries.clear();
+    }
+
+    /** Give the number of players in the cache.
+     * @since 1.0
+     * @return Returns the number of entries.
+     */
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    /** Give the number of renders served by the cache.
+     * @since 1.0
+     * @return Returns the number of hits.
+     */
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    /** Give the number of renders that had to run the item editor.
+     * @since 1.0
+     * @return Returns the number of misses.
+     */
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    /**
+     * A rendered item and its expiry date.
+     */
+    private static class CachedRender {
+
+        private final ItemStack itemStack;
+        private final long expireAt;
+
+        private CachedRender(ItemStack itemStack, long expireAt) {
+            this.itemStack = itemStack;
+            this.expireAt = expireAt;
+        }
+    }
+}
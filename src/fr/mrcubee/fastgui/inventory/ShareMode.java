@@ -0,0 +1,26 @@
+package fr.mrcubee.fastgui.inventory;
+
+/** This enumeration defines if the players viewing an inventory share the same Bukkit inventory.
+ * @author MrCubee
+ * @Contributor Lightnew
+ * @version 1.0
+ * @since 1.0
+ */
+public enum ShareMode {
+
+    /**
+     * The Bukkit inventory is shared while the inventory looks the same for everyone
+     * (No item depending on the player and no slot rendered for each viewer).
+     */
+    AUTO,
+
+    /**
+     * The Bukkit inventory is always shared. The items depending on the player are displayed as seen by no player.
+     */
+    SHARED,
+
+    /**
+     * A Bukkit inventory is built for each player.
+     */
+    PER_PLAYER
+}
@@ -0,0 +1,132 @@
+package fr.mrcubee.fastgui.inventory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/** This class is a hashed timing wheel driving the animated buttons of a manager, advanced once per tick.
+ * A button is only looked at when its period is over, so the cost of a tick depends on the due frames, not on the number of buttons.
+ * @author MrCubee
+ * @Contributor Lightnew
+ * @version 1.0
+ * @since 1.0
+ */
+final class TimingWheel {
+
+    /**
+     * The buttons, in the bucket of the tick of their next frame (Modulo the number of buckets).
+     */
+    private final List<AnimatedButton>[] buckets;
+
+    /**
+     * The mask giving the bucket of a tick.
+     */
+    private final int mask;
+
+    /**
+     * The buttons scheduled since the last tick, from any thread.
+     */
+    private final Queue<AnimatedButton> pending;
+
+    /**
+     * The buttons due at the current tick.
+     */
+    private final List<AnimatedButton> due;
+
+    /**
+     * The current tick.
+     */
+    private long tick;
+
+    /**
+     * The number of buttons in the buckets.
+     */
+    private int size;
+
+    /** Create a timing wheel.
+     * @since 1.0
+     * @param bucketCount The number of buckets (Rounded up to a power of 2).
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    TimingWheel(int bucketCount) {
+        int count = Integer.highestOneBit(Math.max(1, bucketCount - 1)) << 1;
+
+        this.buckets = new List[count];
+        for (int i = 0; i < count; i++)
+            this.buckets[i] = new ArrayList<>();
+        this.mask = count - 1;
+        this.pending = new ConcurrentLinkedQueue<>();
+        this.due = new ArrayList<>();
+        this.tick = 0L;
+        this.size = 0;
+    }
+
+    /** Add a button to the wheel at the next tick, from any thread. Its first frame change is one period later.
+     * @since 1.0
+     * @param button The button to add.
+     */
+    void schedule(AnimatedButton button) {
+        this.pending.add(button);
+    }
+
+    /** Advance the wheel by one tick and display the due frames (Main thread only).
+     * @since 1.0
+     * @return Returns the number of frames displayed.
+     */
+    int advance() {
+        List<AnimatedButton> bucket;
+        AnimatedButton button;
+        int advanced = 0;
+
+        this.tick++;
+        while ((button = this.pending.poll()) != null)
+            insert(button);
+        bucket = this.buckets[(int) (this.tick & this.mask)];
+        for (int i = bucket.size() - 1; i >= 0; i--) {
+            button = bucket.get(i);
+            if (button.deadline > this.tick)
+                continue;
+            bucket.set(i, bucket.get(bucket.size() - 1));
+            bucket.remove(bucket.size() - 1);
+            this.size--;
+            this.due.add(button);
+        }
+        for (AnimatedButton dueButton : this.due) {
+            if (!dueButton.advance())
+                continue;
+            advanced++;
+            insert(dueButton);
+        }
+        this.due.clear();
+        return advanced;
+    }
+
+    /** Put a button in the bucket of its next frame.
+     * @since 1.0
+     * @param button The button.
+     */
+    private void insert(AnimatedButton button) {
+        button.deadline = this.tick + button.getPeriod();
+        this.buckets[(int) (button.deadline & this.mask)].add(button);
+        this.size++;
+    }
+
+    /** Check if the wheel has no button left.
+     * @since 1.0
+     * @return Returns true if the wheel is empty, otherwise returns false.
+     */
+    boolean isEmpty() {
+        return this.size == 0 && this.pending.isEmpty();
+    }
+
+    /** Remove all the buttons from the wheel.
+     * @since 1.0
+     */
+    void clear() {
+        for (List<AnimatedButton> bucket : this.buckets)
+            bucket.clear();
+        this.pending.clear();
+        this.size = 0;
+    }
+}
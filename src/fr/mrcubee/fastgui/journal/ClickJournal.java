@@ -0,0 +1,499 @@
+package fr.mrcubee.fastgui.journal;
+
+import org.bukkit.event.inventory.ClickType;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/** This class keeps an append-only journal of the clicks made in the inventories (See {@link fr.mrcubee.fastgui.inventory.FastInventoryManager#setClickJournal(ClickJournal)}).
+ * The clicks are put in a lock-free ring buffer, and a background thread writes them into memory-mapped segment files.
+ * Recording a click never blocks: when the buffer is full, the click is dropped and counted.
+ * Several managers can record into the same journal, each click carrying the source (the plugin) of its inventory,
+ * as the inventory ids are only unique within a manager. The names of the sources are kept in a file next to the segment files.
+ * @author MrCubee
+ * @Contributor Lightnew
+ * @version 1.0
+ * @since 1.0
+ */
+public class ClickJournal {
+
+    /**
+     * The first bytes of a segment file ("FGJ2").
+     */
+    static final int MAGIC = 0x46474A32;
+
+    /**
+     * The size of the header of a segment file, in bytes.
+     */
+    static final int HEADER_SIZE = 32;
+
+    /**
+     * The size of a click record, in bytes.
+     */
+    static final int RECORD_SIZE = 32;
+
+    /**
+     * The position of the number of dropped clicks in the header of a segment file.
+     */
+    static final int DROPPED_OFFSET = 16;
+
+    /**
+     * The extension of the segment files.
+     */
+    static final String EXTENSION = ".journal";
+
+    /**
+     * The extension of the file naming the sources of a journal.
+     */
+    static final String SOURCES_EXTENSION = ".sources";
+
+    /**
+     * The maximum number of sources of a journal.
+     */
+    static final int MAX_SOURCES = 256;
+
+    /**
+     * The bit set in the head of the buffer once the journal is closed, so that no click is claimed after the last one written.
+     */
+    private static final long CLOSED = 1L << 62;
+
+    /**
+     * The directory containing the segment files.
+     */
+    private final File directory;
+
+    /**
+     * The name of the journal, which starts the name of its segment files.
+     */
+    private final String name;
+
+    /**
+     * The maximum size of a segment file, in bytes.
+     */
+    private final int segmentSize;
+
+    /**
+     * The maximum number of segment files kept (0 to keep them all).
+     */
+    private volatile int maxSegments;
+
+    /**
+     * The ids of the sources by name (Guarded by the journal).
+     */
+    private final Map<String, Integer> sources;
+
+    /**
+     * The fields of the buffered clicks (Timestamp, player UUID, packed inventory, source, slot, click type and outcome).
+     */
+    private final long[] buffer;
+
+    /**
+     * The sequence number + 1 of the click published in each slot of the buffer.
+     */
+    private final AtomicLongArray published;
+
+    /**
+     * The mask giving the slot of a sequence number in the buffer.
+     */
+    private final int mask;
+
+    /**
+     * The sequence number of the next click recorded.
+     */
+    private final AtomicLong head;
+
+    /**
+     * The sequence number of the next click written.
+     */
+    private final AtomicLong tail;
+
+    /**
+     * The sequence number of the first click which can't be claimed, once the journal is closed.
+     */
+    private volatile long end;
+
+    /**
+     * The number of clicks dropped because the buffer was full or the journal was not writing.
+     */
+    private final LongAdder dropped;
+
+    /**
+     * The number of clicks written into the segment files.
+     */
+    private volatile long written;
+
+    /**
+     * The segment files written by this journal, oldest first.
+     */
+    private final ArrayDeque<Path> segments;
+
+    /**
+     * The thread writing the buffered clicks.
+     */
+    private Thread writer;
+
+    /**
+     * True while the journal accepts clicks.
+     */
+    private volatile boolean running;
+
+    /**
+     * The error which stopped the writing, or null.
+     */
+    private volatile IOException failure;
+
+    /**
+     * The channel of the current segment file.
+     */
+    private FileChannel channel;
+
+    /**
+     * The mapping of the current segment file.
+     */
+    private MappedByteBuffer segment;
+
+    /**
+     * The number of segment files created.
+     */
+    private int segmentCount;
+
+    /** Create a journal with a buffer of 65536 clicks and segment files of 16 MiB.
+     * @since 1.0
+     * @param directory The directory containing the segment files.
+     * @param name The name of the journal, which starts the name of its segment files.
+     */
+    public ClickJournal(File directory, String name) {
+        this(directory, name, 1 << 16, 16 << 20);
+    }
+
+    /** Create a journal. It records nothing until {@link #start()} is called.
+     * @since 1.0
+     * @param directory The directory containing the segment files.
+     * @param name The name of the journal, which starts the name of its segment files.
+     * @param capacity The number of clicks the buffer can hold (Rounded up to a power of two).
+     * @param segmentSize The maximum size of a segment file, in bytes.
+     */
+    public ClickJournal(File directory, String name, int capacity, int segmentSize) {
+        capacity = Integer.highestOneBit(Math.max(2, Math.min(capacity, 1 << 24)) * 2 - 1);
+        this.directory = directory;
+        this.name = name;
+        this.segmentSize = Math.max(HEADER_SIZE + RECORD_SIZE, segmentSize - segmentSize % RECORD_SIZE);
+        this.maxSegments = 0;
+        this.sources = new LinkedHashMap<>();
+        this.buffer = new long[capacity * 4];
+        this.published = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        this.head = new AtomicLong();
+        this.tail = new AtomicLong();
+        this.end = Long.MAX_VALUE;
+        this.dropped = new LongAdder();
+        this.written = 0L;
+        this.segments = new ArrayDeque<>();
+        this.writer = null;
+        this.running = false;
+        this.failure = null;
+    }
+
+    /** Define the maximum number of segment files kept, the oldest ones written by this journal being deleted.
+     * @since 1.0
+     * @param maxSegments The maximum number of segment files (0 to keep them all).
+     */
+    public void setMaxSegments(int maxSegments) {
+        this.maxSegments = Math.max(0, maxSegments);
+    }
+
+    /** Give the id of a source of clicks, registering it the first time and writing the names of the sources next to the segment files.
+     * @since 1.0
+     * @param sourceName The name of the source (The name of the plugin of the manager).
+     * @return Returns the id of the source, or -1 if there are already 256 sources or their names can't be written.
+     */
+    public synchronized int addSource(String sourceName) {
+        Integer source;
+        Properties properties;
+        Path file;
+        Path temporaryFile;
+
+        if (sourceName == null)
+            return -1;
+        source = this.sources.get(sourceName);
+        if (source != null)
+            return source;
+        if (this.sources.size() >= MAX_SOURCES)
+            return -1;
+        this.sources.put(sourceName, this.sources.size());
+        properties = new Properties();
+        this.sources.forEach((name, id) -> properties.setProperty(String.valueOf(id), name));
+        file = this.directory.toPath().resolve(this.name + SOURCES_EXTENSION);
+        temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(this.directory.toPath());
+            try (Writer writer = Files.newBufferedWriter(temporaryFile, StandardCharsets.UTF_8)) {
+                properties.store(writer, null);
+            }
+            Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException exception) {
+            this.sources.remove(sourceName);
+            return -1;
+        }
+        return this.sources.size() - 1;
+    }
+
+    /** Open the first segment file and start the thread writing the clicks.
+     * @since 1.0
+     * @return Returns true if the journal is started, otherwise returns false if it is already started or the segment file can't be created.
+     */
+    public synchronized boolean start() {
+        if (this.writer != null)
+            return false;
+        try {
+            Files.createDirectories(this.directory.toPath());
+            openSegment();
+        } catch (IOException exception) {
+            this.failure = exception;
+            return false;
+        }
+        this.running = true;
+        this.writer = new Thread(this::write, "FastGUI Click Journal (" + this.name + ")");
+        this.writer.setDaemon(true);
+        this.writer.start();
+        return true;
+    }
+
+    /** Record a click. Never blocks, the click is dropped if the buffer is full.
+     * @since 1.0
+     * @param source The id of the source of the click (See {@link #addSource(String)}).
+     * @param playerId The unique id of the player who clicked.
+     * @param inventoryId The id of the inventory (See {@link fr.mrcubee.fastgui.inventory.FastInventory#getId()}).
+     * @param slot The clicked slot (From 0 to 255).
+     * @param clickType The type of the click.
+     * @param outcome What happened to the click.
+     * @return Returns true if the click is recorded, otherwise returns false if it is dropped.
+     */
+    public boolean record(int source, UUID playerId, int inventoryId, int slot, ClickType clickType, ClickOutcome outcome) {
+        long sequence;
+        int index;
+
+        if (!this.running || playerId == null) {
+            this.dropped.increment();
+            return false;
+        }
+        do {
+            sequence = this.head.get();
+            if ((sequence & CLOSED) != 0 || sequence - this.tail.get() > this.mask) {
+                this.dropped.increment();
+                return false;
+            }
+        } while (!this.head.compareAndSet(sequence, sequence + 1));
+        index = (int) sequence & this.mask;
+        this.buffer[index << 2] = System.currentTimeMillis();
+        this.buffer[(index << 2) + 1] = playerId.getMostSignificantBits();
+        this.buffer[(index << 2) + 2] = playerId.getLeastSignificantBits();
+        this.buffer[(index << 2) + 3] = pack(inventoryId, source, slot, clickType, outcome);
+        this.published.lazySet(index, sequence + 1);
+        return true;
+    }
+
+    /** Pack the inventory id, the source, the slot, the click type and the outcome of a click in a single value.
+     * @since 1.0
+     * @param inventoryId The id of the inventory.
+     * @param source The id of the source of the click.
+     * @param slot The clicked slot.
+     * @param clickType The type of the click.
+     * @param outcome What happened to the click.
+     * @return Returns the packed value.
+     */
+    static long pack(int inventoryId, int source, int slot, ClickType clickType, ClickOutcome outcome) {
+        return ((long) inventoryId << 32) | ((source & 0xFFL) << 24) | ((slot & 0xFFL) << 16)
+                | ((clickType == null ? 0xFFL : clickType.ordinal() & 0xFFL) << 8)
+                | (outcome == null ? 0xFFL : outcome.ordinal() & 0xFFL);
+    }
+
+    /**
+     * The loop of the writer thread, waiting a millisecond when the buffer is empty.
+     * Once the journal is closed, writes the clicks claimed before, waiting up to a second for the ones still being recorded.
+     */
+    private void write() {
+        long deadline;
+
+        while (this.running) {
+            if (drain() == 0 && this.running)
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (this.tail.get() < this.end && System.nanoTime() < deadline) {
+            if (drain() == 0)
+                LockSupport.parkNanos(this, TimeUnit.MICROSECONDS.toNanos(100));
+        }
+        if (this.tail.get() < this.end)
+            this.dropped.add(this.end - this.tail.get());
+    }
+
+    /** Write the published clicks into the segment files.
+     * @since 1.0
+     * @return Returns the number of clicks taken from the buffer.
+     */
+    private int drain() {
+        long sequence = this.tail.get();
+        int count = 0;
+        int index;
+
+        while (this.published.get(index = (int) sequence & this.mask) == sequence + 1) {
+            if (this.failure == null) {
+                try {
+                    if (this.segment.remaining() < RECORD_SIZE)
+                        rotateSegment();
+                    for (int i = 0; i < 4; i++)
+                        this.segment.putLong(this.buffer[(index << 2) + i]);
+                    this.written++;
+                } catch (IOException exception) {
+                    this.failure = exception;
+                }
+            }
+            if (this.failure != null)
+                this.dropped.increment();
+            this.tail.lazySet(++sequence);
+            count++;
+        }
+        return count;
+    }
+
+    /** Create and map a new segment file, writing its header.
+     * @since 1.0
+     * @throws IOException If the segment file can't be created.
+     */
+    private void openSegment() throws IOException {
+        long createdAt = System.currentTimeMillis();
+        Path path = this.directory.toPath().resolve(String.format("%s-%013d-%04d%s", this.name, createdAt, this.segmentCount, EXTENSION));
+
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.segment = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, this.segmentSize);
+        this.segment.putInt(MAGIC);
+        this.segment.putInt(RECORD_SIZE);
+        this.segment.putLong(createdAt);
+        this.segment.position(HEADER_SIZE);
+        this.segmentCount++;
+        this.segments.addLast(path);
+    }
+
+    /** Flush and close the current segment file, recording the number of clicks dropped so far in its header.
+     * @since 1.0
+     * @throws IOException If the segment file can't be closed.
+     */
+    private void closeSegment() throws IOException {
+        if (this.channel == null)
+            return;
+        this.segment.putLong(DROPPED_OFFSET, this.dropped.sum());
+        this.segment.force();
+        this.segment = null;
+        this.channel.close();
+        this.channel = null;
+    }
+
+    /** Close the current segment file, open the next one and delete the oldest ones beyond the maximum.
+     * @since 1.0
+     * @throws IOException If a segment file can't be closed or created.
+     */
+    private void rotateSegment() throws IOException {
+        int maxSegments = this.maxSegments;
+
+        closeSegment();
+        openSegment();
+        while (maxSegments > 0 && this.segments.size() > maxSegments)
+            Files.deleteIfExists(this.segments.removeFirst());
+    }
+
+    /** Stop recording the clicks, write the buffered ones and close the segment file.
+     * The clicks recorded at the same time are either written or counted as dropped.
+     * @since 1.0
+     */
+    public void close() {
+        Thread writer;
+
+        synchronized (this) {
+            writer = this.writer;
+            if (writer == null || !this.running)
+                return;
+            this.end = this.head.getAndAdd(CLOSED);
+            this.running = false;
+        }
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            closeSegment();
+        } catch (IOException exception) {
+            if (this.failure == null)
+                this.failure = exception;
+        }
+    }
+
+    /** Check if the journal is recording the clicks.
+     * @since 1.0
+     * @return Returns true if the journal is started and not closed, otherwise returns false.
+     */
+    public boolean isRunning() {
+        return this.running;
+    }
+
+    /** Give the number of clicks dropped because the buffer was full, the journal was not started or closed, or the writing failed.
+     * @since 1.0
+     * @return Returns the number of dropped clicks.
+     */
+    public long getDroppedCount() {
+        return this.dropped.sum();
+    }
+
+    /** Give the number of clicks written into the segment files.
+     * @since 1.0
+     * @return Returns the number of written clicks.
+     */
+    public long getWrittenCount() {
+        return this.written;
+    }
+
+    /** Give the error which stopped the writing of the clicks.
+     * @since 1.0
+     * @return Returns the error, or null if the journal did not fail.
+     */
+    public IOException getFailure() {
+        return this.failure;
+    }
+
+    /** Give the directory containing the segment files.
+     * @since 1.0
+     * @return Returns the directory.
+     */
+    public File getDirectory() {
+        return this.directory;
+    }
+
+    /** Give the name of the journal, which starts the name of its segment files.
+     * @since 1.0
+     * @return Returns the name.
+     */
+    public String getName() {
+        return this.name;
+    }
+}
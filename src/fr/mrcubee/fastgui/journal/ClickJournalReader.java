@@ -0,0 +1,171 @@
+package fr.mrcubee.fastgui.journal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/** This class reads back the segment files written by a {@link ClickJournal}, for replay and analysis.
+ * It can be run from the command line: {@code java -cp <FastGUI and Bukkit API jars> fr.mrcubee.fastgui.journal.ClickJournalReader [--summary] <files or directories>}.
+ * @author MrCubee
+ * @Contributor Lightnew
+ * @version 1.0
+ * @since 1.0
+ */
+public class ClickJournalReader {
+
+    private ClickJournalReader() {
+    }
+
+    /** Give the segment files of a directory, in writing order.
+     * @since 1.0
+     * @param directory The directory containing the segment files.
+     * @param name The name of the journal, or null for the segment files of all the journals.
+     * @return Returns the paths of the segment files.
+     * @throws IOException If the directory can't be listed.
+     */
+    public static List<Path> getSegments(File directory, String name) throws IOException {
+        try (Stream<Path> paths = Files.list(directory.toPath())) {
+            return paths.filter(path -> {
+                String fileName = path.getFileName().toString();
+
+                return fileName.endsWith(ClickJournal.EXTENSION) && (name == null || fileName.startsWith(name + "-"));
+            }).sorted().collect(Collectors.toList());
+        }
+    }
+
+    /** Give the names of the sources of a journal, written by {@link ClickJournal#addSource(String)}.
+     * @since 1.0
+     * @param directory The directory containing the segment files.
+     * @param name The name of the journal.
+     * @return Returns the names of the sources by id, empty if the journal has no source file.
+     * @throws IOException If the source file can't be read.
+     */
+    public static Map<Integer, String> readSources(File directory, String name) throws IOException {
+        Path file = directory.toPath().resolve(name + ClickJournal.SOURCES_EXTENSION);
+        Properties properties = new Properties();
+        Map<Integer, String> sources = new TreeMap<>();
+
+        if (!Files.isRegularFile(file))
+            return sources;
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        for (String key : properties.stringPropertyNames()) {
+            try {
+                sources.put(Integer.parseInt(key), properties.getProperty(key));
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        return sources;
+    }
+
+    /** Give the name of the journal of a segment file.
+     * @since 1.0
+     * @param path The path of the segment file.
+     * @return Returns the name of the journal.
+     */
+    private static String getJournalName(Path path) {
+        String fileName = path.getFileName().toString();
+        int index = fileName.lastIndexOf('-', fileName.lastIndexOf('-') - 1);
+
+        return index > 0 ? fileName.substring(0, index) : fileName;
+    }
+
+    /** Read the clicks of a segment file.
+     * @since 1.0
+     * @param path The path of the segment file.
+     * @param consumer The consumer of the clicks, in recording order.
+     * @return Returns the number of clicks dropped by the journal until the segment file was closed, or -1 if it was not closed.
+     * @throws IOException If the file can't be read or is not a segment file.
+     */
+    public static long read(Path path, Consumer<? super ClickRecord> consumer) throws IOException {
+        ByteBuffer buffer;
+        long timestamp;
+        long dropped;
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.remaining() < ClickJournal.HEADER_SIZE || buffer.getInt(0) != ClickJournal.MAGIC
+        || buffer.getInt(4) != ClickJournal.RECORD_SIZE)
+            throw new IOException(path + " is not a FastGUI click journal.");
+        dropped = buffer.getLong(ClickJournal.DROPPED_OFFSET);
+        buffer.position(ClickJournal.HEADER_SIZE);
+        while (buffer.remaining() >= ClickJournal.RECORD_SIZE) {
+            timestamp = buffer.getLong();
+            if (timestamp == 0)
+                return -1L;
+            consumer.accept(new ClickRecord(timestamp, new UUID(buffer.getLong(), buffer.getLong()), buffer.getLong()));
+        }
+        return dropped;
+    }
+
+    /** Print the clicks of segment files, or a summary of them with the {@code --summary} option.
+     * @since 1.0
+     * @param args The option and the segment files or the directories containing them.
+     * @throws IOException If a file can't be read.
+     */
+    public static void main(String[] args) throws IOException {
+        List<Path> paths = new ArrayList<>();
+        boolean summary = false;
+        Map<ClickOutcome, Long> outcomes = new EnumMap<>(ClickOutcome.class);
+        Map<String, Long> inventories = new TreeMap<>();
+        Map<Integer, String> sources = new TreeMap<>();
+        long[] total = new long[1];
+        long dropped = -1L;
+        File file;
+
+        for (String arg : args) {
+            if (arg.equals("--summary")) {
+                summary = true;
+                continue;
+            }
+            file = new File(arg);
+            if (file.isDirectory())
+                paths.addAll(getSegments(file, null));
+            else
+                paths.add(file.toPath());
+        }
+        if (paths.isEmpty()) {
+            System.err.println("Usage: ClickJournalReader [--summary] <files or directories>");
+            return;
+        }
+        for (Path path : paths) {
+            if (summary) {
+                sources.clear();
+                sources.putAll(readSources(path.toAbsolutePath().getParent().toFile(), getJournalName(path)));
+                dropped = Math.max(dropped, read(path, record -> {
+                    total[0]++;
+                    if (record.getOutcome() != null)
+                        outcomes.merge(record.getOutcome(), 1L, Long::sum);
+                    inventories.merge(sources.getOrDefault(record.getSource(), "#" + record.getSource())
+                            + " inventory " + record.getInventoryId(), 1L, Long::sum);
+                }));
+            } else {
+                read(path, System.out::println);
+            }
+        }
+        if (!summary)
+            return;
+        System.out.println("Clicks: " + total[0] + " in " + paths.size() + " segment(s)"
+                + (dropped >= 0 ? ", " + dropped + " dropped" : ""));
+        outcomes.forEach((outcome, count) -> System.out.println("  " + outcome + ": " + count));
+        inventories.forEach((inventory, count) -> System.out.println("  " + inventory + ": " + count));
+    }
+}
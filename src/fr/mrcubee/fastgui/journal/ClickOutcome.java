@@ -0,0 +1,41 @@
+package fr.mrcubee.fastgui.journal;
+
+/** This enumeration lists what happened to a click in an inventory built by FastGUI.
+ * The order of the constants is stored in the journal files, new constants must be added at the end.
+ * @author MrCubee
+ * @Contributor Lightnew
+ * @version 1.0
+ * @since 1.0
+ */
+public enum ClickOutcome {
+
+    /**
+     * The action of the clicked button was executed.
+     */
+    BUTTON,
+
+    /**
+     * The clicked slot has no visible button, the action of the default button was executed.
+     */
+    DEFAULT,
+
+    /**
+     * The clicked slot displays an entry of the view, its action was executed (See {@link fr.mrcubee.fastgui.inventory.PaginatedInventory}).
+     */
+    VIEW,
+
+    /**
+     * The clicked slot has no button and the inventory has no default button.
+     */
+    NO_BUTTON,
+
+    /**
+     * The click was dropped by the click limiter (See {@link fr.mrcubee.fastgui.inventory.ClickLimiter}).
+     */
+    RATE_LIMITED,
+
+    /**
+     * The click was ignored, the player was not a viewer of the inventory or the session was closed.
+     */
+    IGNORED
+}
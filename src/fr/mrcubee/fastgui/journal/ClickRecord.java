@@ -0,0 +1,104 @@
+package fr.mrcubee.fastgui.journal;
+
+import org.bukkit.event.inventory.ClickType;
+
+import java.io.File;
+import java.util.UUID;
+
+/** This class is a click read back from a journal (See {@link ClickJournalReader}).
+ * @author MrCubee
+ * @Contributor Lightnew
+ * @version 1.0
+ * @since 1.0
+ */
+public class ClickRecord {
+
+    private static final ClickType[] CLICK_TYPES = ClickType.values();
+    private static final ClickOutcome[] OUTCOMES = ClickOutcome.values();
+
+    private final long timestamp;
+    private final UUID playerId;
+    private final int inventoryId;
+    private final int source;
+    private final int slot;
+    private final int clickType;
+    private final int outcome;
+
+    /** Create a record from its stored fields.
+     * @since 1.0
+     * @param timestamp The time of the click, in milliseconds since the epoch.
+     * @param playerId The unique id of the player.
+     * @param packed The inventory id, the source, the slot, the click type and the outcome packed by {@link ClickJournal#pack(int, int, int, ClickType, ClickOutcome)}.
+     */
+    ClickRecord(long timestamp, UUID playerId, long packed) {
+        this.timestamp = timestamp;
+        this.playerId = playerId;
+        this.inventoryId = (int) (packed >>> 32);
+        this.source = (int) (packed >>> 24) & 0xFF;
+        this.slot = (int) (packed >>> 16) & 0xFF;
+        this.clickType = (int) (packed >>> 8) & 0xFF;
+        this.outcome = (int) packed & 0xFF;
+    }
+
+    /** Give the time of the click.
+     * @since 1.0
+     * @return Returns the time in milliseconds since the epoch.
+     */
+    public long getTimestamp() {
+        return this.timestamp;
+    }
+
+    /** Give the player who clicked.
+     * @since 1.0
+     * @return Returns the unique id of the player.
+     */
+    public UUID getPlayerId() {
+        return this.playerId;
+    }
+
+    /** Give the inventory in which the player clicked.
+     * @since 1.0
+     * @return Returns the id of the inventory (See {@link fr.mrcubee.fastgui.inventory.FastInventory#getId()}).
+     */
+    public int getInventoryId() {
+        return this.inventoryId;
+    }
+
+    /** Give the source of the click, the inventory ids being only unique within a source.
+     * @since 1.0
+     * @return Returns the id of the source (See {@link ClickJournalReader#readSources(File, String)}).
+     */
+    public int getSource() {
+        return this.source;
+    }
+
+    /** Give the clicked slot.
+     * @since 1.0
+     * @return Returns the slot.
+     */
+    public int getSlot() {
+        return this.slot;
+    }
+
+    /** Give the type of the click.
+     * @since 1.0
+     * @return Returns the click type, or null if it is unknown to the running server.
+     */
+    public ClickType getClickType() {
+        return this.clickType < CLICK_TYPES.length ? CLICK_TYPES[this.clickType] : null;
+    }
+
+    /** Give what happened to the click.
+     * @since 1.0
+     * @return Returns the outcome, or null if it is unknown to this version of the library.
+     */
+    public ClickOutcome getOutcome() {
+        return this.outcome < OUTCOMES.length ? OUTCOMES[this.outcome] : null;
+    }
+
+    @Override
+    public String toString() {
+        return this.timestamp + " " + this.playerId + " source=" + this.source + " inventory=" + this.inventoryId + " slot=" + this.slot
+                + " click=" + getClickType() + " outcome=" + getOutcome();
+    }
+}
@@ -0,0 +1,230 @@
+package fr.mrcubee.fastgui.menu;
+
+import fr.mrcubee.fastgui.inventory.Button;
+import fr.mrcubee.fastgui.inventory.FastInventory;
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/** This class represents a menu defined by a file. The menu is compiled into an inventory on first use,
+ * then compiled again each time its file changes, the new inventory replacing the old one for the next openings.
+ * @author MrCubee
+ * @Contributor Lightnew
+ * @version 1.0
+ * @since 1.0
+ */
+public class Menu {
+
+    /**
+     * The registry of the menu.
+     */
+    private final MenuRegistry registry;
+
+    /**
+     * The name of the menu (The name of its file without extension).
+     */
+    private final String name;
+
+    /**
+     * The file defining the menu.
+     */
+    private final File file;
+
+    /**
+     * The compiled menu, or null if the menu is not compiled yet.
+     */
+    private volatile Compiled compiled;
+
+    /**
+     * The inventories replaced by a new compilation, kept until their last viewer closes them (Main thread only).
+     */
+    private final List<FastInventory> retiredInventories;
+
+    /** Create a menu, which is not compiled until it is used.
+     * @since 1.0
+     * @param registry The registry of the menu.
+     * @param name The name of the menu.
+     * @param file The file defining the menu.
+     */
+    Menu(MenuRegistry registry, String name, File file) {
+        this.registry = registry;
+        this.name = name;
+        this.file = file;
+        this.compiled = null;
+        this.retiredInventories = new ArrayList<>();
+    }
+
+    /** Give the name of the menu.
+     * @since 1.0
+     * @return Returns the name of the menu.
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /** Check if the menu is compiled.
+     * @since 1.0
+     * @return Returns true if the menu is compiled, otherwise returns false.
+     */
+    public boolean isCompiled() {
+        return this.compiled != null;
+    }
+
+    /** Give the inventory of the menu, compiling it on first use.
+     * @since 1.0
+     * @return Returns the inventory, otherwise returns null if the menu can't be compiled.
+     */
+    public FastInventory getInventory() {
+        Compiled current = getCompiled();
+
+        return current == null ? null : current.inventory;
+    }
+
+    /** Open the menu to a player, compiling it on first use.
+     * @since 1.0
+     * @param player The player.
+     * @return Returns true if the menu opens, otherwise returns false on error.
+     */
+    public boolean open(HumanEntity player) {
+        Compiled current = getCompiled();
+
+        disposeRetiredInventories();
+        return current != null && current.inventory.openInventory(player, current.title);
+    }
+
+    /** Give the compiled menu, compiling it if needed.
+     * @since 1.0
+     * @return Returns the compiled menu, otherwise returns null on error.
+     */
+    private Compiled getCompiled() {
+        Compiled current = this.compiled;
+
+        if (current != null)
+            return current;
+        synchronized (this) {
+            if (this.compiled == null)
+                this.compiled = compile();
+            return this.compiled;
+        }
+    }
+
+    /** Compile the menu again if it was already compiled, then replace it for the next openings.
+     * If the file is no longer valid, the previous compilation is kept.
+     * @since 1.0
+     */
+    void reload() {
+        Compiled previous;
+        Compiled next;
+
+        synchronized (this) {
+            previous = this.compiled;
+            if (previous == null)
+                return;
+            next = compile();
+            if (next == null)
+                return;
+            this.compiled = next;
+        }
+        retire(previous.inventory);
+    }
+
+    /** Forget the compiled menu, after its file is deleted.
+     * @since 1.0
+     */
+    void unload() {
+        Compiled previous;
+
+        synchronized (this) {
+            previous = this.compiled;
+            this.compiled = null;
+        }
+        if (previous != null)
+            retire(previous.inventory);
+    }
+
+    /** Compile the file of the menu into a new inventory.
+     * @since 1.0
+     * @return Returns the compiled menu, otherwise returns null on error.
+     */
+    private Compiled compile() {
+        MenuDefinition definition = MenuDefinition.load(this.file, this.registry.getManager().getPlugin().getLogger());
+        FastInventory inventory;
+
+        if (definition == null)
+            return null;
+        inventory = this.registry.getManager().createInventory(definition.rows);
+        if (inventory == null)
+            return null;
+        inventory.edit(fastInventory -> {
+            fastInventory.setShareMode(definition.shareMode);
+            fastInventory.fillInventory(definition.fillItem);
+            for (MenuDefinition.Element element : definition.items)
+                for (long slots = element.slots; slots != 0; slots &= slots - 1)
+                    fastInventory.setItem(Long.numberOfTrailingZeros(slots), element.item);
+            for (MenuDefinition.Element element : definition.buttons)
+                for (long slots = element.slots; slots != 0; slots &= slots - 1)
+                    createButton(fastInventory, Long.numberOfTrailingZeros(slots), element);
+        });
+        return new Compiled(inventory, definition.title);
+    }
+
+    /** Create a button of the menu.
+     * @since 1.0
+     * @param fastInventory The inventory being compiled.
+     * @param slot The slot of the button.
+     * @param element The definition of the button.
+     */
+    private void createButton(FastInventory fastInventory, int slot, MenuDefinition.Element element) {
+        Button button = fastInventory.createItemButton(slot, element.item,
+                (clicked, player) -> this.registry.execute(element.action, element.argument, clicked, player), event -> {});
+
+        if (button != null && element.cooldown > 0)
+            button.setClickCooldown(element.cooldown);
+    }
+
+    /** Dispose a replaced inventory on the main thread, once its last viewer has closed it.
+     * @since 1.0
+     * @param inventory The replaced inventory.
+     */
+    private void retire(FastInventory inventory) {
+        Plugin plugin = this.registry.getManager().getPlugin();
+
+        if (!plugin.isEnabled())
+            return;
+        plugin.getServer().getScheduler().runTask(plugin, () -> {
+            this.retiredInventories.add(inventory);
+            disposeRetiredInventories();
+        });
+    }
+
+    /** Dispose the replaced inventories which are no longer viewed (Main thread only).
+     * @since 1.0
+     */
+    private void disposeRetiredInventories() {
+        if (this.retiredInventories.isEmpty())
+            return;
+        this.retiredInventories.removeIf(inventory -> {
+            if (inventory.getViewerCount() != 0)
+                return false;
+            inventory.dispose();
+            return true;
+        });
+    }
+
+    /**
+     * A compiled menu, replaced as a whole.
+     */
+    private static final class Compiled {
+
+        private final FastInventory inventory;
+        private final String title;
+
+        private Compiled(FastInventory inventory, String title) {
+            this.inventory = inventory;
+            this.title = title;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package fr.mrcubee.fastgui.menu;
+
+import fr.mrcubee.fastgui.inventory.Button;
+import org.bukkit.entity.HumanEntity;
+
+/** This interface represents an action referenced by name in the menu files (For example "action: connect:survival").
+ * @author MrCubee
+ * @Contributor Lightnew
+ * @version 1.0
+ * @since 1.0
+ */
+@FunctionalInterface
+public interface MenuAction {
+
+    /** Execute the action.
+     * @since 1.0
+     * @param button The clicked button.
+     * @param player The player who clicked.
+     * @param argument The argument given after the name of the action, or null if there is none.
+     */
+    void execute(Button button, HumanEntity player, String argument);
+}
@@ -0,0 +1,268 @@
+package fr.mrcubee.fastgui.menu;
+
+import fr.mrcubee.fastgui.inventory.FrozenItem;
+import fr.mrcubee.fastgui.inventory.ShareMode;
+import org.bukkit.ChatColor;
+import org.bukkit.Material;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.logging.Logger;
+
+/** This class is the definition of a menu read from a YAML file.
+ * <pre>
+ * title: "&amp;8Server selector"
+ * rows: 3
+ * share-mode: AUTO
+ * fill:
+ *   material: STAINED_GLASS_PANE
+ *   data: 7
+ * items:
+ *   border:
+ *     slots: "row:0, row:2"
+ *     material: STAINED_GLASS_PANE
+ * buttons:
+ *   survival:
+ *     slots: 13
+ *     material: GRASS
+ *     name: "&amp;aSurvival"
+ *     lore: ["&amp;7Click to join"]
+ *     action: "connect:survival"
+ *     cooldown: 1000
+ * </pre>
+ * The slots are a list of slots ("4"), ranges ("0-8"), rows ("row:0") or columns ("column:8") separated by commas.
+ * @author MrCubee
+ * @Contributor Lightnew
+ * @version 1.0
+ * @since 1.0
+ */
+final class MenuDefinition {
+
+    /**
+     * The title of the menu, or null for the default title.
+     */
+    final String title;
+
+    /**
+     * The number of lines of the menu (Between 1 and 6 inclusive).
+     */
+    final int rows;
+
+    /**
+     * The mode defining if the viewers share the same Bukkit inventory.
+     */
+    final ShareMode shareMode;
+
+    /**
+     * The item filling the free slots, or null.
+     */
+    final FrozenItem fillItem;
+
+    /**
+     * The items placed in the menu.
+     */
+    final List<Element> items;
+
+    /**
+     * The buttons placed in the menu.
+     */
+    final List<Element> buttons;
+
+    private MenuDefinition(String title, int rows, ShareMode shareMode, FrozenItem fillItem, List<Element> items, List<Element> buttons) {
+        this.title = title;
+        this.rows = rows;
+        this.shareMode = shareMode;
+        this.fillItem = fillItem;
+        this.items = items;
+        this.buttons = buttons;
+    }
+
+    /** Read the definition of a menu from a YAML file.
+     * @since 1.0
+     * @param file The file.
+     * @param logger The logger receiving the errors.
+     * @return Returns the definition, otherwise returns null on error.
+     */
+    static MenuDefinition load(File file, Logger logger) {
+        YamlConfiguration configuration = new YamlConfiguration();
+
+        try {
+            configuration.load(file);
+            return parse(configuration);
+        } catch (IOException | InvalidConfigurationException | IllegalArgumentException exception) {
+            logger.warning("FastGUI can't load the menu " + file.getName() + ": " + exception.getMessage());
+            return null;
+        }
+    }
+
+    /** Read the definition of a menu.
+     * @since 1.0
+     * @param configuration The configuration of the menu.
+     * @return Returns the definition.
+     * @throws IllegalArgumentException If the definition is not valid.
+     */
+    private static MenuDefinition parse(ConfigurationSection configuration) {
+        String title = configuration.getString("title");
+        int rows = configuration.getInt("rows", 0);
+        ShareMode shareMode;
+        FrozenItem fillItem = null;
+
+        if (rows < 1 || rows > 6)
+            throw new IllegalArgumentException("rows must be between 1 and 6.");
+        try {
+            shareMode = ShareMode.valueOf(configuration.getString("share-mode", "AUTO").toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException exception) {
+            throw new IllegalArgumentException("unknown share-mode " + configuration.getString("share-mode") + ".");
+        }
+        if (title != null)
+            title = ChatColor.translateAlternateColorCodes('&', title);
+        if (configuration.isConfigurationSection("fill"))
+            fillItem = FrozenItem.of(parseItem(configuration.getConfigurationSection("fill")));
+        return new MenuDefinition(title, rows, shareMode, fillItem,
+                parseElements(configuration.getConfigurationSection("items"), rows * 9, false),
+                parseElements(configuration.getConfigurationSection("buttons"), rows * 9, true));
+    }
+
+    /** Read the items or buttons of a menu.
+     * @since 1.0
+     * @param section The section of the elements, or null.
+     * @param size The size of the menu.
+     * @param button True to read buttons, false to read items.
+     * @return Returns the elements.
+     */
+    private static List<Element> parseElements(ConfigurationSection section, int size, boolean button) {
+        List<Element> elements;
+        ConfigurationSection elementSection;
+        String action;
+        int separator;
+
+        if (section == null)
+            return Collections.emptyList();
+        elements = new ArrayList<>();
+        for (String key : section.getKeys(false)) {
+            elementSection = section.getConfigurationSection(key);
+            if (elementSection == null)
+                throw new IllegalArgumentException(key + " must be a section.");
+            action = button ? elementSection.getString("action") : null;
+            separator = action == null ? -1 : action.indexOf(':');
+            elements.add(new Element(parseSlots(key, elementSection.get("slots"), size),
+                    FrozenItem.of(parseItem(elementSection)),
+                    separator < 0 ? action : action.substring(0, separator),
+                    separator < 0 ? null : action.substring(separator + 1),
+                    elementSection.getInt("cooldown", 0)));
+        }
+        return elements;
+    }
+
+    /** Read the slots of an element.
+     * @since 1.0
+     * @param key The name of the element.
+     * @param value The slots, as a number, a string or a list.
+     * @param size The size of the menu.
+     * @return Returns the bitmap of the slots.
+     */
+    private static long parseSlots(String key, Object value, int size) {
+        List<String> tokens = new ArrayList<>();
+        long slots = 0L;
+        String token;
+        int separator;
+        int index;
+        int stop;
+
+        if (value instanceof List) {
+            for (Object element : (List<?>) value)
+                tokens.add(String.valueOf(element));
+        } else if (value != null) {
+            Collections.addAll(tokens, String.valueOf(value).split(","));
+        }
+        try {
+            for (String element : tokens) {
+                token = element.trim().toLowerCase(Locale.ROOT);
+                if (token.startsWith("row:")) {
+                    index = Integer.parseInt(token.substring(4).trim());
+                    if (index < 0 || index * 9 >= size)
+                        throw new IllegalArgumentException("row " + index + " of " + key + " is outside the menu.");
+                    slots |= 0x1FFL << (index * 9);
+                } else if (token.startsWith("column:")) {
+                    index = Integer.parseInt(token.substring(7).trim());
+                    if (index < 0 || index >= 9)
+                        throw new IllegalArgumentException("column " + index + " of " + key + " is outside the menu.");
+                    for (int slot = index; slot < size; slot += 9)
+                        slots |= 1L << slot;
+                } else {
+                    separator = token.indexOf('-', 1);
+                    index = Integer.parseInt((separator < 0 ? token : token.substring(0, separator)).trim());
+                    stop = separator < 0 ? index : Integer.parseInt(token.substring(separator + 1).trim());
+                    for (int slot = index; slot <= stop; slot++) {
+                        if (slot < 0 || slot >= size)
+                            throw new IllegalArgumentException("slot " + slot + " of " + key + " is outside the menu.");
+                        slots |= 1L << slot;
+                    }
+                }
+            }
+        } catch (NumberFormatException exception) {
+            throw new IllegalArgumentException("invalid slots of " + key + ": " + value + ".");
+        }
+        if (slots == 0)
+            throw new IllegalArgumentException(key + " has no slots.");
+        return slots;
+    }
+
+    /** Read an item.
+     * @since 1.0
+     * @param section The section of the item.
+     * @return Returns the item.
+     */
+    private static ItemStack parseItem(ConfigurationSection section) {
+        Material material = Material.matchMaterial(section.getString("material", ""));
+        List<String> lore = new ArrayList<>();
+        ItemStack itemStack;
+        ItemMeta itemMeta;
+
+        if (material == null)
+            throw new IllegalArgumentException("unknown material " + section.getString("material") + " in " + section.getName() + ".");
+        itemStack = new ItemStack(material, section.getInt("amount", 1), (short) section.getInt("data", 0));
+        if (!section.contains("name") && !section.contains("lore"))
+            return itemStack;
+        itemMeta = itemStack.getItemMeta();
+        if (itemMeta == null)
+            return itemStack;
+        if (section.contains("name"))
+            itemMeta.setDisplayName(ChatColor.translateAlternateColorCodes('&', section.getString("name")));
+        for (String line : section.getStringList("lore"))
+            lore.add(ChatColor.translateAlternateColorCodes('&', line));
+        if (!lore.isEmpty())
+            itemMeta.setLore(lore);
+        itemStack.setItemMeta(itemMeta);
+        return itemStack;
+    }
+
+    /**
+     * An item or a button of the menu.
+     */
+    static final class Element {
+
+        final long slots;
+        final FrozenItem item;
+        final String action;
+        final String argument;
+        final long cooldown;
+
+        private Element(long slots, FrozenItem item, String action, String argument, long cooldown) {
+            this.slots = slots;
+            this.item = item;
+            this.action = action;
+            this.argument = argument;
+            this.cooldown = cooldown;
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package fr.mrcubee.fastgui.menu;
+
+import fr.mrcubee.fastgui.inventory.Button;
+import fr.mrcubee.fastgui.inventory.FastInventoryManager;
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.server.PluginDisableEvent;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/** This class loads the menus defined by the YAML files of a directory (See {@link MenuDefinition}).
+ * The menus are compiled on first use, and compiled again when their file changes if the directory is watched.
+ * @author MrCubee
+ * @Contributor Lightnew
+ * @version 1.0
+ * @since 1.0
+ */
+public class MenuRegistry implements Listener {
+
+    /**
+     * The extension of the menu files.
+     */
+    private static final String EXTENSION = ".yml";
+
+    /**
+     * The manager creating the inventories of the menus.
+     */
+    private final FastInventoryManager manager;
+
+    /**
+     * The directory of the menu files.
+     */
+    private final File directory;
+
+    /**
+     * The actions referenced by the menus, by name.
+     */
+    private final Map<String, MenuAction> actions;
+
+    /**
+     * The menus, by name.
+     */
+    private final Map<String, Menu> menus;
+
+    /**
+     * The watcher of the directory, or null if the directory is not watched.
+     */
+    private WatchService watchService;
+
+    /** Create the registry of the menus of a directory.
+     * @since 1.0
+     * @param manager The manager creating the inventories of the menus.
+     * @param directory The directory of the menu files.
+     */
+    public MenuRegistry(FastInventoryManager manager, File directory) {
+        this.manager = manager;
+        this.directory = directory;
+        this.actions = new ConcurrentHashMap<>();
+        this.menus = new ConcurrentHashMap<>();
+        this.watchService = null;
+    }
+
+    /** Give the manager creating the inventories of the menus.
+     * @since 1.0
+     * @return Returns the inventory manager.
+     */
+    public FastInventoryManager getManager() {
+        return this.manager;
+    }
+
+    /** Register an action which can be referenced by the menus.
+     * @since 1.0
+     * @param name The name of the action.
+     * @param action The action.
+     */
+    public void registerAction(String name, MenuAction action) {
+        if (action == null)
+            this.actions.remove(name);
+        else
+            this.actions.put(name, action);
+    }
+
+    /** Find the menu files of the directory. The menus are only compiled on first use.
+     * @since 1.0
+     * @return Returns the number of menus found.
+     */
+    public int load() {
+        File[] files = this.directory.listFiles((dir, fileName) -> fileName.endsWith(EXTENSION));
+
+        if (files == null)
+            return 0;
+        for (File file : files)
+            this.menus.computeIfAbsent(getMenuName(file.getName()), name -> new Menu(this, name, file));
+        return this.menus.size();
+    }
+
+    /** Give a menu.
+     * @since 1.0
+     * @param name The name of the menu (The name of its file without extension).
+     * @return Returns the menu, otherwise returns null if no menu has this name.
+     */
+    public Menu getMenu(String name) {
+        return this.menus.get(name);
+    }
+
+    /** Give all the menus found.
+     * @since 1.0
+     * @return Returns a copy of the list of the menus.
+     */
+    public Collection<Menu> getMenus() {
+        return new ArrayList<>(this.menus.values());
+    }
+
+    /** Open a menu to a player, compiling it on first use.
+     * @since 1.0
+     * @param player The player.
+     * @param name The name of the menu.
+     * @return Returns true if the menu opens, otherwise returns false on error.
+     */
+    public boolean open(HumanEntity player, String name) {
+        Menu menu = this.menus.get(name);
+
+        return menu != null && menu.open(player);
+    }
+
+    /** Execute an action referenced by a menu.
+     * @since 1.0
+     * @param name The name of the action.
+     * @param argument The argument of the action, or null.
+     * @param button The clicked button.
+     * @param player The player who clicked.
+     */
+    void execute(String name, String argument, Button button, HumanEntity player) {
+        MenuAction action;
+
+        if (name == null)
+            return;
+        action = this.actions.get(name);
+        if (action == null) {
+            this.manager.getPlugin().getLogger().warning("FastGUI menu action " + name + " is not registered.");
+            return;
+        }
+        action.execute(button, player, argument);
+    }
+
+    /** Watch the directory, to compile the changed menus again in the background and replace them for the next openings.
+     * @since 1.0
+     * @return Returns true if the directory is watched, otherwise returns false on error.
+     */
+    public synchronized boolean watch() {
+        WatchService service;
+        Thread thread;
+
+        if (this.watchService != null)
+            return true;
+        try {
+            service = FileSystems.getDefault().newWatchService();
+            this.directory.toPath().register(service, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException exception) {
+            this.manager.getPlugin().getLogger().log(Level.WARNING, "FastGUI can't watch the menu directory " + this.directory + ".", exception);
+            return false;
+        }
+        this.watchService = service;
+        thread = new Thread(() -> watch(service), "FastGUI Menu Watcher (" + this.manager.getPlugin().getName() + ")");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    /** Stop watching the directory.
+     * @since 1.0
+     */
+    public synchronized void close() {
+        if (this.watchService == null)
+            return;
+        try {
+            this.watchService.close();
+        } catch (IOException ignored) {
+        }
+        this.watchService = null;
+    }
+
+    /** Wait for the changes of the directory, and reload the changed menus (Watcher thread).
+     * The changes received within a short delay are grouped, since editors often write a file several times.
+     * @since 1.0
+     * @param service The watcher of the directory.
+     */
+    private void watch(WatchService service) {
+        Set<String> changedFiles;
+        WatchKey key;
+
+        try {
+            while (true) {
+                key = service.take();
+                changedFiles = new HashSet<>();
+                while (key != null) {
+                    for (WatchEvent<?> event : key.pollEvents())
+                        if (event.context() instanceof Path && event.context().toString().endsWith(EXTENSION))
+                            changedFiles.add(event.context().toString());
+                    key.reset();
+                    key = service.poll(100, TimeUnit.MILLISECONDS);
+                }
+                for (String fileName : changedFiles)
+                    reload(fileName);
+            }
+        } catch (InterruptedException | ClosedWatchServiceException ignored) {
+        }
+    }
+
+    /** Reload the menu of a changed file.
+     * @since 1.0
+     * @param fileName The name of the changed file.
+     */
+    private void reload(String fileName) {
+        File file = new File(this.directory, fileName);
+        String name = getMenuName(fileName);
+        Menu menu;
+
+        if (!file.isFile()) {
+            menu = this.menus.remove(name);
+            if (menu != null)
+                menu.unload();
+            return;
+        }
+        menu = this.menus.get(name);
+        if (menu == null)
+            this.menus.putIfAbsent(name, new Menu(this, name, file));
+        else
+            menu.reload();
+    }
+
+    /** Give the name of the menu of a file.
+     * @since 1.0
+     * @param fileName The name of the file.
+     * @return Returns the name of the menu.
+     */
+    private static String getMenuName(String fileName) {
+        return fileName.substring(0, fileName.length() - EXTENSION.length());
+    }
+
+    @EventHandler
+    public void pluginDisableEvent(PluginDisableEvent event) {
+        if (event != null && event.getPlugin() == this.manager.getPlugin())
+            close();
+    }
+}
@@ -0,0 +1,69 @@
+package fr.mrcubee.fastgui.metric;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/** This class holds the counters and the durations of the actions of a button.
+ * The histogram is only created on the first measured action, so that buttons never clicked cost almost nothing.
+ * @author MrCubee
+ * @Contributor Lightnew
+ * @version 1.0
+ * @since 1.0
+ */
+public class ButtonMetrics {
+
+    /**
+     * The number of actions performed.
+     */
+    private final LongAdder actions;
+
+    /**
+     * The durations of the actions, or null before the first measured action.
+     */
+    private volatile LatencyHistogram actionLatency;
+
+    /** Create the metrics of a button.
+     * @since 1.0
+     */
+    public ButtonMetrics() {
+        this.actions = new LongAdder();
+        this.actionLatency = null;
+    }
+
+    /** Count an action.
+     * @since 1.0
+     * @param nanos The duration of the action in nanoseconds, or -1 if it is not measured.
+     */
+    void recordAction(long nanos) {
+        LatencyHistogram histogram = this.actionLatency;
+
+        this.actions.increment();
+        if (nanos < 0)
+            return;
+        if (histogram == null) {
+            synchronized (this) {
+                histogram = this.actionLatency;
+                if (histogram == null) {
+                    histogram = new LatencyHistogram();
+                    this.actionLatency = histogram;
+                }
+            }
+        }
+        histogram.record(nanos);
+    }
+
+    /** Give the number of actions performed.
+     * @since 1.0
+     * @return Returns the number of actions.
+     */
+    public long getActions() {
+        return this.actions.sum();
+    }
+
+    /** Give the durations of the actions.
+     * @since 1.0
+     * @return Returns the histogram of the durations, or null if no action has been measured.
+     */
+    public LatencyHistogram getActionLatency() {
+        return this.actionLatency;
+    }
+}
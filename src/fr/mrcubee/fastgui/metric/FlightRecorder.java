@@ -0,0 +1,37 @@
+package fr.mrcubee.fastgui.metric;
+
+/** This interface emits the durations of the library as Java Flight Recorder events.
+ * Its implementation is compiled in a separate source set (src-jfr), so that the library builds without jdk.jfr.
+ * @author MrCubee
+ * @Contributor Lightnew
+ * @version 1.0
+ * @since 1.0
+ */
+interface FlightRecorder {
+
+    /** Emit the event of an opening.
+     * @since 1.0
+     * @param plugin The name of the plugin owning the inventory.
+     * @param inventory The id of the inventory.
+     * @param nanos The duration of the render.
+     */
+    void open(String plugin, int inventory, long nanos);
+
+    /** Emit the event of a click.
+     * @since 1.0
+     * @param plugin The name of the plugin owning the inventory.
+     * @param inventory The id of the inventory.
+     * @param slot The clicked slot.
+     * @param nanos The duration of the handling of the click.
+     */
+    void click(String plugin, int inventory, int slot, long nanos);
+
+    /** Emit the event of the action of a button.
+     * @since 1.0
+     * @param plugin The name of the plugin owning the inventory.
+     * @param inventory The id of the inventory.
+     * @param slot The slot of the button.
+     * @param nanos The duration of the action.
+     */
+    void action(String plugin, int inventory, int slot, long nanos);
+}
@@ -0,0 +1,153 @@
+package fr.mrcubee.fastgui.metric;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/** This class holds the counters and the durations of an inventory: openings, clicks and actions of its buttons.
+ * @author MrCubee
+ * @Contributor Lightnew
+ * @version 1.0
+ * @since 1.0
+ */
+public class InventoryMetrics {
+
+    /**
+     * The name of the plugin owning the inventory.
+     */
+    private final String plugin;
+
+    /**
+     * The id of the inventory.
+     */
+    private final int inventory;
+
+    /**
+     * The number of openings.
+     */
+    private final LongAdder opens;
+
+    /**
+     * The number of clicks handled.
+     */
+    private final LongAdder clicks;
+
+    /**
+     * The durations of the renders on opening.
+     */
+    private final LatencyHistogram openLatency;
+
+    /**
+     * The durations of the handling of the clicks, actions included.
+     */
+    private final LatencyHistogram clickLatency;
+
+    /**
+     * The durations of the actions of the buttons.
+     */
+    private final LatencyHistogram actionLatency;
+
+    /** Create the metrics of an inventory.
+     * @since 1.0
+     * @param plugin The name of the plugin owning the inventory.
+     * @param inventory The id of the inventory.
+     */
+    public InventoryMetrics(String plugin, int inventory) {
+        this.plugin = plugin;
+        this.inventory = inventory;
+        this.opens = new LongAdder();
+        this.clicks = new LongAdder();
+        this.openLatency = new LatencyHistogram();
+        this.clickLatency = new LatencyHistogram();
+        this.actionLatency = new LatencyHistogram();
+    }
+
+    /** Count an opening.
+     * @since 1.0
+     * @param start The start time given by {@link Metrics#start()}.
+     */
+    public void recordOpen(long start) {
+        long nanos = Metrics.elapsed(start);
+        FlightRecorder flightRecorder = Metrics.getFlightRecorder();
+
+        this.opens.increment();
+        if (nanos < 0)
+            return;
+        this.openLatency.record(nanos);
+        if (flightRecorder != null)
+            flightRecorder.open(this.plugin, this.inventory, nanos);
+    }
+
+    /** Count a click.
+     * @since 1.0
+     * @param slot The clicked slot.
+     * @param start The start time given by {@link Metrics#start()}.
+     */
+    public void recordClick(int slot, long start) {
+        long nanos = Metrics.elapsed(start);
+        FlightRecorder flightRecorder = Metrics.getFlightRecorder();
+
+        this.clicks.increment();
+        if (nanos < 0)
+            return;
+        this.clickLatency.record(nanos);
+        if (flightRecorder != null)
+            flightRecorder.click(this.plugin, this.inventory, slot, nanos);
+    }
+
+    /** Count the action of a button.
+     * @since 1.0
+     * @param button The metrics of the button.
+     * @param slot The slot of the button.
+     * @param start The start time given by {@link Metrics#start()}.
+     */
+    public void recordAction(ButtonMetrics button, int slot, long start) {
+        long nanos = Metrics.elapsed(start);
+        FlightRecorder flightRecorder = Metrics.getFlightRecorder();
+
+        button.recordAction(nanos);
+        if (nanos < 0)
+            return;
+        this.actionLatency.record(nanos);
+        if (flightRecorder != null)
+            flightRecorder.action(this.plugin, this.inventory, slot, nanos);
+    }
+
+    /** Give the number of openings.
+     * @since 1.0
+     * @return Returns the number of openings.
+     */
+    public long getOpens() {
+        return this.opens.sum();
+    }
+
+    /** Give the number of clicks handled.
+     * @since 1.0
+     * @return Returns the number of clicks.
+     */
+    public long getClicks() {
+        return this.clicks.sum();
+    }
+
+    /** Give the durations of the renders on opening.
+     * @since 1.0
+     * @return Returns the histogram of the durations.
+     */
+    public LatencyHistogram getOpenLatency() {
+        return this.openLatency;
+    }
+
+    /** Give the durations of the handling of the clicks, actions included.
+     * @since 1.0
+     * @return Returns the histogram of the durations.
+     */
+    public LatencyHistogram getClickLatency() {
+        return this.clickLatency;
+    }
+
+    /** Give the durations of the actions of the buttons.
+     * @since 1.0
+     * @return Returns the histogram of the durations.
+     */
+    public LatencyHistogram getActionLatency() {
+        return this.actionLatency;
+    }
+}
@@ -0,0 +1,140 @@
+package fr.mrcubee.fastgui.metric;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/** This class counts durations in buckets of powers of two nanoseconds, without locks.
+ * @author MrCubee
+ * @Contributor Lightnew
+ * @version 1.0
+ * @since 1.0
+ */
+public class LatencyHistogram {
+
+    /**
+     * The number of buckets. The bucket n counts the durations between 2^n and 2^(n+1) nanoseconds.
+     */
+    public static final int BUCKET_COUNT = 40;
+
+    /**
+     * The number of durations in each bucket.
+     */
+    private final LongAdder[] buckets;
+
+    /**
+     * The sum of the durations, in nanoseconds.
+     */
+    private final LongAdder total;
+
+    /**
+     * The longest duration, in nanoseconds.
+     */
+    private final LongAccumulator max;
+
+    /** Create an empty histogram.
+     * @since 1.0
+     */
+    public LatencyHistogram() {
+        this.buckets = new LongAdder[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++)
+            this.buckets[i] = new LongAdder();
+        this.total = new LongAdder();
+        this.max = new LongAccumulator(Math::max, 0L);
+    }
+
+    /** Count a duration.
+     * @since 1.0
+     * @param nanos The duration in nanoseconds.
+     */
+    public void record(long nanos) {
+        if (nanos < 0)
+            nanos = 0;
+        this.buckets[Math.min(BUCKET_COUNT - 1, 63 - Long.numberOfLeadingZeros(nanos | 1))].increment();
+        this.total.add(nanos);
+        this.max.accumulate(nanos);
+    }
+
+    /** Give the number of durations counted.
+     * @since 1.0
+     * @return Returns the number of durations.
+     */
+    public long getCount() {
+        long count = 0;
+
+        for (LongAdder bucket : this.buckets)
+            count += bucket.sum();
+        return count;
+    }
+
+    /** Give the sum of the durations counted.
+     * @since 1.0
+     * @return Returns the sum in nanoseconds.
+     */
+    public long getTotalNanos() {
+        return this.total.sum();
+    }
+
+    /** Give the average duration.
+     * @since 1.0
+     * @return Returns the average duration in nanoseconds, or 0 if nothing is counted.
+     */
+    public long getMeanNanos() {
+        long count = getCount();
+
+        return count == 0 ? 0L : getTotalNanos() / count;
+    }
+
+    /** Give the longest duration counted.
+     * @since 1.0
+     * @return Returns the longest duration in nanoseconds.
+     */
+    public long getMaxNanos() {
+        return this.max.get();
+    }
+
+    /** Give an upper bound of a percentile of the durations.
+     * @since 1.0
+     * @param percentile The percentile (Between 0 and 100 inclusive).
+     * @return Returns the upper bound of the bucket containing the percentile, in nanoseconds.
+     */
+    public long getPercentileNanos(double percentile) {
+        long[] counts = new long[BUCKET_COUNT];
+        long count = 0;
+        long rank;
+
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = this.buckets[i].sum();
+            count += counts[i];
+        }
+        if (count == 0)
+            return 0L;
+        rank = (long) Math.ceil(count * Math.max(0.0, Math.min(100.0, percentile)) / 100.0);
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            rank -= counts[i];
+            if (rank <= 0)
+                return Math.min(getMaxNanos(), (2L << i) - 1);
+        }
+        return getMaxNanos();
+    }
+
+    /** Give the number of durations in a bucket.
+     * @since 1.0
+     * @param bucket The bucket (See {@link #BUCKET_COUNT}).
+     * @return Returns the number of durations.
+     */
+    public long getBucketCount(int bucket) {
+        if (bucket < 0 || bucket >= BUCKET_COUNT)
+            return 0L;
+        return this.buckets[bucket].sum();
+    }
+
+    /** Forget all the durations counted.
+     * @since 1.0
+     */
+    public void reset() {
+        for (LongAdder bucket : this.buckets)
+            bucket.reset();
+        this.total.reset();
+        this.max.reset();
+    }
+}
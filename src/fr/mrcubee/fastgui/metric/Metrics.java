@@ -0,0 +1,98 @@
+package fr.mrcubee.fastgui.metric;
+
+/** This class holds the settings of the metrics of the library.
+ * @author MrCubee
+ * @Contributor Lightnew
+ * @version 1.0
+ * @since 1.0
+ */
+public class Metrics {
+
+    /**
+     * True if the durations are measured.
+     */
+    private static volatile boolean enabled = true;
+
+    /**
+     * The name of the class emitting the Java Flight Recorder events, compiled apart from the library.
+     */
+    private static final String FLIGHT_RECORDER_CLASS = "fr.mrcubee.fastgui.metric.JfrEvents";
+
+    /**
+     * The emitter of the Java Flight Recorder events, or null if they are disabled.
+     */
+    private static volatile FlightRecorder flightRecorder = null;
+
+    private Metrics() {
+    }
+
+    /** Enable or disable the measure of the durations. The counters are always kept.
+     * @since 1.0
+     * @param enabled True to measure the durations.
+     */
+    public static void setEnabled(boolean enabled) {
+        Metrics.enabled = enabled;
+    }
+
+    /** Check if the durations are measured.
+     * @since 1.0
+     * @return Returns true if the durations are measured, otherwise returns false.
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Enable or disable the Java Flight Recorder events. They need a Java runtime providing the jdk.jfr module,
+     * and a library built by a JDK providing it (11 or later), the events being left out otherwise.
+     * @since 1.0
+     * @param jfrEnabled True to emit the events.
+     * @return Returns true if the setting is applied, otherwise returns false if the runtime or the build does not provide Java Flight Recorder.
+     */
+    public static boolean setJfrEnabled(boolean jfrEnabled) {
+        if (!jfrEnabled) {
+            Metrics.flightRecorder = null;
+            return true;
+        }
+        if (Metrics.flightRecorder != null)
+            return true;
+        try {
+            Metrics.flightRecorder = (FlightRecorder) Class.forName(FLIGHT_RECORDER_CLASS).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError exception) {
+            return false;
+        }
+        return true;
+    }
+
+    /** Check if the durations are emitted as Java Flight Recorder events.
+     * @since 1.0
+     * @return Returns true if the events are emitted, otherwise returns false.
+     */
+    public static boolean isJfrEnabled() {
+        return flightRecorder != null;
+    }
+
+    /** Give the emitter of the Java Flight Recorder events.
+     * @since 1.0
+     * @return Returns the emitter, or null if the events are disabled.
+     */
+    static FlightRecorder getFlightRecorder() {
+        return flightRecorder;
+    }
+
+    /** Start measuring a duration.
+     * @since 1.0
+     * @return Returns the start time to give to the recording methods, or 0 if the durations are not measured.
+     */
+    public static long start() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    /** Give the duration elapsed since a start time.
+     * @since 1.0
+     * @param start The start time given by {@link #start()}.
+     * @return Returns the duration in nanoseconds, or -1 if the duration is not measured.
+     */
+    static long elapsed(long start) {
+        return start == 0 ? -1L : System.nanoTime() - start;
+    }
+}
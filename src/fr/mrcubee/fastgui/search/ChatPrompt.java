@@ -0,0 +1,83 @@
+package fr.mrcubee.fastgui.search;
+
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerChatEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.plugin.Plugin;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/** This class takes the next chat message of a player as an answer (A search query...), instead of sending it to the chat.
+ * @author MrCubee
+ * @Contributor Lightnew
+ * @version 1.0
+ * @since 1.0
+ */
+public class ChatPrompt implements Listener {
+
+    /**
+     * The plugin which owns the prompt.
+     */
+    private final Plugin plugin;
+
+    /**
+     * The callbacks waiting for the answer of each player.
+     */
+    private final Map<UUID, Consumer<? super String>> prompts;
+
+    /** Create a chat prompt. It must be registered as a listener of the plugin.
+     * @since 1.0
+     * @param plugin The plugin which owns the prompt.
+     */
+    public ChatPrompt(Plugin plugin) {
+        this.plugin = plugin;
+        this.prompts = new ConcurrentHashMap<>();
+    }
+
+    /** Wait for the next chat message of a player. The previous question of the player is replaced.
+     * @since 1.0
+     * @param player The player.
+     * @param callback The callback receiving the message on the main thread.
+     */
+    public void ask(HumanEntity player, Consumer<? super String> callback) {
+        if (player != null && callback != null)
+            this.prompts.put(player.getUniqueId(), callback);
+    }
+
+    /** Stop waiting for the answer of a player.
+     * @since 1.0
+     * @param player The player.
+     * @return Returns true if an answer was awaited, otherwise returns false.
+     */
+    public boolean cancel(HumanEntity player) {
+        return player != null && this.prompts.remove(player.getUniqueId()) != null;
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST, ignoreCancelled = true)
+    public void asyncPlayerChatEvent(AsyncPlayerChatEvent event) {
+        Consumer<? super String> callback;
+        String message;
+
+        if (event == null)
+            return;
+        callback = this.prompts.remove(event.getPlayer().getUniqueId());
+        if (callback == null)
+            return;
+        event.setCancelled(true);
+        message = event.getMessage();
+        if (this.plugin.isEnabled())
+            this.plugin.getServer().getScheduler().runTask(this.plugin, () -> callback.accept(message));
+    }
+
+    @EventHandler
+    public void playerQuitEvent(PlayerQuitEvent event) {
+        if (event != null)
+            this.prompts.remove(event.getPlayer().getUniqueId());
+    }
+}
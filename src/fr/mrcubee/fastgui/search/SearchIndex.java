@@ -0,0 +1,260 @@
+package fr.mrcubee.fastgui.search;
+
+import org.bukkit.ChatColor;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/** This class is an in-memory prefix index over the entries of a catalogue, matched against the words of their item
+ * (Display name, lore, material) and their tags. The index is updated entry by entry, and a query only reads the postings
+ * of the words starting with its terms, so that it can run on the main thread over large catalogues.
+ * @author MrCubee
+ * @Contributor Lightnew
+ * @version 1.0
+ * @since 1.0
+ * @param <T> The type of the entries.
+ */
+public class SearchIndex<T> {
+
+    /**
+     * The minimum number of removed entries before the index is compacted.
+     */
+    private static final int COMPACT_THRESHOLD = 1024;
+
+    /**
+     * The entries by id, in insertion order (null once removed).
+     */
+    private List<T> entries;
+
+    /**
+     * The id of each entry.
+     */
+    private final Map<T, Integer> ids;
+
+    /**
+     * The ids of the entries containing each word, in ascending order. The ids of removed entries stay until the next compaction.
+     */
+    private final TreeMap<String, Postings> postings;
+
+    /**
+     * The number of removed entries whose ids are still in the postings.
+     */
+    private int removedCount;
+
+    /** Create an empty index.
+     * @since 1.0
+     */
+    public SearchIndex() {
+        this.entries = new ArrayList<>();
+        this.ids = new HashMap<>();
+        this.postings = new TreeMap<>();
+        this.removedCount = 0;
+    }
+
+    /** Add an entry, indexed by the words of its item and its tags. An entry already indexed is indexed again.
+     * @since 1.0
+     * @param entry The entry.
+     * @param itemStack The item representing the entry.
+     * @param tags Additional words matching the entry.
+     * @return Returns true if the entry is added, otherwise returns false on error.
+     */
+    public boolean add(T entry, ItemStack itemStack, String... tags) {
+        List<String> texts = new ArrayList<>(Arrays.asList(tags));
+        ItemMeta itemMeta;
+
+        if (itemStack != null) {
+            texts.add(itemStack.getType().name());
+            itemMeta = itemStack.hasItemMeta() ? itemStack.getItemMeta() : null;
+            if (itemMeta != null && itemMeta.hasDisplayName())
+                texts.add(itemMeta.getDisplayName());
+            if (itemMeta != null && itemMeta.hasLore())
+                texts.addAll(itemMeta.getLore());
+        }
+        return add(entry, texts);
+    }
+
+    /** Add an entry, indexed by the words of some texts. An entry already indexed is indexed again.
+     * @since 1.0
+     * @param entry The entry.
+     * @param texts The texts matching the entry.
+     * @return Returns true if the entry is added, otherwise returns false on error.
+     */
+    public synchronized boolean add(T entry, Collection<String> texts) {
+        Set<String> words = new LinkedHashSet<>();
+        int id;
+
+        if (entry == null || texts == null)
+            return false;
+        remove(entry);
+        for (String text : texts)
+            tokenize(text, words);
+        id = this.entries.size();
+        this.entries.add(entry);
+        this.ids.put(entry, id);
+        for (String word : words)
+            this.postings.computeIfAbsent(word, key -> new Postings()).add(id);
+        return true;
+    }
+
+    /** Remove an entry from the index.
+     * @since 1.0
+     * @param entry The entry.
+     * @return Returns true if the entry is removed, otherwise returns false if it was not indexed.
+     */
+    public synchronized boolean remove(T entry) {
+        Integer id = this.ids.remove(entry);
+
+        if (id == null)
+            return false;
+        this.entries.set(id, null);
+        this.removedCount++;
+        if (this.removedCount >= COMPACT_THRESHOLD && this.removedCount * 2 >= this.entries.size())
+            compact();
+        return true;
+    }
+
+    /** Give the number of entries indexed.
+     * @since 1.0
+     * @return Returns the number of entries.
+     */
+    public synchronized int size() {
+        return this.ids.size();
+    }
+
+    /** Find the entries matching a query. Each word of the query must start a word of the entry, in any order.
+     * @since 1.0
+     * @param query The query typed by the player.
+     * @return Returns the matching entries, in insertion order (All the entries if the query has no word).
+     */
+    public synchronized SearchResult<T> search(String query) {
+        Set<String> terms = new LinkedHashSet<>();
+        BitSet matches = null;
+        BitSet termMatches;
+        List<T> found;
+        T entry;
+
+        tokenize(query, terms);
+        for (String term : terms) {
+            termMatches = new BitSet(this.entries.size());
+            for (Postings termPostings : this.postings.subMap(term, true, term + Character.MAX_VALUE, false).values())
+                termPostings.addTo(termMatches);
+            if (matches == null)
+                matches = termMatches;
+            else
+                matches.and(termMatches);
+            if (matches.isEmpty())
+                break;
+        }
+        found = new ArrayList<>(matches == null ? this.ids.size() : matches.cardinality());
+        if (matches == null) {
+            for (T indexed : this.entries)
+                if (indexed != null)
+                    found.add(indexed);
+        } else {
+            for (int id = matches.nextSetBit(0); id >= 0; id = matches.nextSetBit(id + 1)) {
+                entry = this.entries.get(id);
+                if (entry != null)
+                    found.add(entry);
+            }
+        }
+        return new SearchResult<>(query, found);
+    }
+
+    /** Give new ids to the entries to drop the removed ones from the postings.
+     * @since 1.0
+     */
+    private void compact() {
+        int[] newIds = new int[this.entries.size()];
+        List<T> compacted = new ArrayList<>(this.ids.size());
+        Iterator<Postings> iterator;
+        Postings wordPostings;
+
+        for (int id = 0; id < newIds.length; id++) {
+            newIds[id] = this.entries.get(id) == null ? -1 : compacted.size();
+            if (newIds[id] >= 0) {
+                this.ids.put(this.entries.get(id), newIds[id]);
+                compacted.add(this.entries.get(id));
+            }
+        }
+        iterator = this.postings.values().iterator();
+        while (iterator.hasNext()) {
+            wordPostings = iterator.next();
+            wordPostings.remap(newIds);
+            if (wordPostings.size == 0)
+                iterator.remove();
+        }
+        this.entries = compacted;
+        this.removedCount = 0;
+    }
+
+    /** Split a text into lower case words, without color codes.
+     * @since 1.0
+     * @param text The text.
+     * @param words The set receiving the words.
+     */
+    static void tokenize(String text, Set<String> words) {
+        String stripped;
+        int start = -1;
+        char character;
+
+        if (text == null)
+            return;
+        stripped = ChatColor.stripColor(text).toLowerCase(Locale.ROOT);
+        for (int i = 0; i <= stripped.length(); i++) {
+            character = i < stripped.length() ? stripped.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(character)) {
+                if (start < 0)
+                    start = i;
+            } else if (start >= 0) {
+                words.add(stripped.substring(start, i));
+                start = -1;
+            }
+        }
+    }
+
+    /**
+     * The ids of the entries containing a word, in ascending order.
+     */
+    private static final class Postings {
+
+        private int[] ids;
+        private int size;
+
+        private Postings() {
+            this.ids = new int[2];
+            this.size = 0;
+        }
+
+        private void add(int id) {
+            if (this.size == this.ids.length)
+                this.ids = Arrays.copyOf(this.ids, this.size * 2);
+            this.ids[this.size++] = id;
+        }
+
+        private void addTo(BitSet bitSet) {
+            for (int i = 0; i < this.size; i++)
+                bitSet.set(this.ids[i]);
+        }
+
+        private void remap(int[] newIds) {
+            int count = 0;
+
+            for (int i = 0; i < this.size; i++)
+                if (newIds[this.ids[i]] >= 0)
+                    this.ids[count++] = newIds[this.ids[i]];
+            this.size = count;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package fr.mrcubee.fastgui.search;
+
+import fr.mrcubee.fastgui.inventory.FastInventoryManager;
+import fr.mrcubee.fastgui.inventory.PaginatedInventory;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/** This class opens the results of the queries typed by the players in a paginated view, the last row holding the controls.
+ * Each results view is built for a single query, and disposed once closed.
+ * @author MrCubee
+ * @Contributor Lightnew
+ * @version 1.0
+ * @since 1.0
+ * @param <T> The type of the entries.
+ */
+public class SearchMenu<T> {
+
+    /**
+     * The maximum length of an inventory title accepted by the server.
+     */
+    private static final int MAX_TITLE_LENGTH = 32;
+
+    /**
+     * The manager creating the results views.
+     */
+    private final FastInventoryManager manager;
+
+    /**
+     * The index of the catalogue.
+     */
+    private final SearchIndex<T> index;
+
+    /**
+     * The number of lines of the results views (Between 2 and 6 inclusive).
+     */
+    private final int line;
+
+    /**
+     * The function giving the item which represents an entry.
+     */
+    private final Function<? super T, ItemStack> renderer;
+
+    /**
+     * The action to be performed when a player clicks on an entry.
+     */
+    private final BiConsumer<? super T, ? super HumanEntity> action;
+
+    /**
+     * The prompt asking the queries, or null if the players can't search again from the results.
+     */
+    private final ChatPrompt prompt;
+
+    /**
+     * The format of the title of the results views (%s is replaced by the query).
+     */
+    private String titleFormat;
+
+    /**
+     * The message sent when the player is asked for a query, or null.
+     */
+    private String promptMessage;
+
+    /**
+     * The items of the controls (null to not display the control).
+     */
+    private ItemStack previousItem;
+    private ItemStack nextItem;
+    private ItemStack searchItem;
+
+    /** Create a search menu.
+     * @since 1.0
+     * @param manager The manager creating the results views.
+     * @param index The index of the catalogue.
+     * @param line The number of lines of the results views (Between 2 and 6 inclusive).
+     * @param renderer The function giving the item which represents an entry.
+     * @param action The action to be performed when a player clicks on an entry.
+     * @param prompt The prompt asking the queries, or null.
+     */
+    public SearchMenu(FastInventoryManager manager, SearchIndex<T> index, int line, Function<? super T, ItemStack> renderer,
+                      BiConsumer<? super T, ? super HumanEntity> action, ChatPrompt prompt) {
+        this.manager = manager;
+        this.index = index;
+        this.line = Math.max(2, Math.min(6, line));
+        this.renderer = renderer;
+        this.action = action;
+        this.prompt = prompt;
+        this.titleFormat = "Search: %s";
+        this.promptMessage = null;
+        this.previousItem = null;
+        this.nextItem = null;
+        this.searchItem = null;
+    }
+
+    /** Define the items of the controls of the last row.
+     * @since 1.0
+     * @param previousItem The item of the previous page button, or null.
+     * @param nextItem The item of the next page button, or null.
+     * @param searchItem The item of the new search button, or null.
+     */
+    public void setControls(ItemStack previousItem, ItemStack nextItem, ItemStack searchItem) {
+        this.previousItem = previousItem;
+        this.nextItem = nextItem;
+        this.searchItem = searchItem;
+    }
+
+    /** Define the title of the results views.
+     * @since 1.0
+     * @param titleFormat The format of the title (%s is replaced by the query).
+     */
+    public void setTitleFormat(String titleFormat) {
+        this.titleFormat = titleFormat;
+    }
+
+    /** Define the message sent when the player is asked for a query.
+     * @since 1.0
+     * @param promptMessage The message, or null to send nothing.
+     */
+    public void setPromptMessage(String promptMessage) {
+        this.promptMessage = promptMessage;
+    }
+
+    /** Ask a player to type a query in the chat, then open its results.
+     * @since 1.0
+     * @param player The player.
+     * @return Returns true if the player is asked, otherwise returns false if there is no prompt.
+     */
+    public boolean prompt(HumanEntity player) {
+        if (this.prompt == null || player == null)
+            return false;
+        player.closeInventory();
+        if (this.promptMessage != null && player instanceof CommandSender)
+            ((CommandSender) player).sendMessage(this.promptMessage);
+        this.prompt.ask(player, query -> open(player, query));
+        return true;
+    }
+
+    /** Search a query and open its results to a player. The title is cut to 32 characters, the limit of the server.
+     * @since 1.0
+     * @param player The player.
+     * @param query The query.
+     * @return Returns true if the results open, otherwise returns false on error.
+     */
+    public boolean open(HumanEntity player, String query) {
+        SearchResult<T> result;
+        PaginatedInventory<T> results;
+        int lastRow = (this.line - 1) * 9;
+        String title;
+        boolean opened = false;
+
+        if (player == null || query == null)
+            return false;
+        result = this.index.search(query);
+        results = this.manager.createPaginatedInventory(this.line, result, this.renderer, this.action);
+        if (results == null)
+            return false;
+        try {
+            results.setDisposeOnClose(true);
+            if (this.previousItem != null)
+                results.createPreviousPageButton(lastRow, this.previousItem);
+            if (this.nextItem != null)
+                results.createNextPageButton(lastRow + 8, this.nextItem);
+            if (this.searchItem != null && this.prompt != null)
+                results.createItemButton(lastRow + 4, this.searchItem, (button, clicker) -> prompt(clicker), event -> {});
+            title = String.format(this.titleFormat, query);
+            if (title.length() > MAX_TITLE_LENGTH)
+                title = title.substring(0, MAX_TITLE_LENGTH);
+            opened = results.openInventory(player, title);
+            return opened;
+        } finally {
+            if (!opened)
+                results.dispose();
+        }
+    }
+}
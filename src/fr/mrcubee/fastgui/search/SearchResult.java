@@ -0,0 +1,65 @@
+package fr.mrcubee.fastgui.search;
+
+import fr.mrcubee.fastgui.inventory.PageSource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/** This class represents the entries matching a query, at the time of the search. It is the data source of a results view.
+ * @author MrCubee
+ * @Contributor Lightnew
+ * @version 1.0
+ * @since 1.0
+ * @param <T> The type of the entries.
+ */
+public class SearchResult<T> implements PageSource<T> {
+
+    /**
+     * The query.
+     */
+    private final String query;
+
+    /**
+     * The matching entries.
+     */
+    private final List<T> entries;
+
+    /** Create the result of a query.
+     * @since 1.0
+     * @param query The query.
+     * @param entries The matching entries.
+     */
+    SearchResult(String query, List<T> entries) {
+        this.query = query;
+        this.entries = entries;
+    }
+
+    /** Give the query.
+     * @since 1.0
+     * @return Returns the query typed by the player.
+     */
+    public String getQuery() {
+        return this.query;
+    }
+
+    /** Give the matching entries.
+     * @since 1.0
+     * @return Returns a read only list of the entries.
+     */
+    public List<T> getEntries() {
+        return Collections.unmodifiableList(this.entries);
+    }
+
+    @Override
+    public int count() {
+        return this.entries.size();
+    }
+
+    @Override
+    public List<T> fetch(int offset, int limit) {
+        if (offset >= this.entries.size())
+            return Collections.emptyList();
+        return new ArrayList<>(this.entries.subList(offset, Math.min(this.entries.size(), offset + limit)));
+    }
+}
@@ -0,0 +1,227 @@
+package fr.mrcubee.fastgui.state;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** This class holds the values remembered for a player by the menus (Last page, filters, toggles...).
+ * The values are kept in memory and written to the disk in the background by their {@link PlayerStateStore}, they can be read and changed from any thread.
+ * @author MrCubee
+ * @Contributor Lightnew
+ * @version 1.0
+ * @since 1.0
+ */
+public class PlayerState {
+
+    /**
+     * The unique id of the player.
+     */
+    private final UUID playerId;
+
+    /**
+     * The values of the player by key.
+     */
+    private final Map<String, String> values;
+
+    /**
+     * The number of changes made to the values.
+     */
+    private final AtomicInteger modifications;
+
+    /**
+     * The number of changes already written to the disk.
+     */
+    private volatile int savedModifications;
+
+    /**
+     * False if the values could not be loaded, so they are never written over the file.
+     */
+    private final boolean writable;
+
+    /**
+     * True once the player has left, the state being dropped after being written.
+     */
+    volatile boolean unloaded;
+
+    /** Create the state of a player from its stored values.
+     * @since 1.0
+     * @param playerId The unique id of the player.
+     * @param values The stored values.
+     * @param writable False if the values could not be loaded.
+     */
+    PlayerState(UUID playerId, Map<String, String> values, boolean writable) {
+        this.playerId = playerId;
+        this.values = new ConcurrentHashMap<>(values);
+        this.modifications = new AtomicInteger();
+        this.savedModifications = 0;
+        this.writable = writable;
+        this.unloaded = false;
+    }
+
+    /** Give the player of the state.
+     * @since 1.0
+     * @return Returns the unique id of the player.
+     */
+    public UUID getPlayerId() {
+        return this.playerId;
+    }
+
+    /** Give a value.
+     * @since 1.0
+     * @param key The key of the value.
+     * @return Returns the value, or null if it is not defined.
+     */
+    public String getString(String key) {
+        return key == null ? null : this.values.get(key);
+    }
+
+    /** Give a value.
+     * @since 1.0
+     * @param key The key of the value.
+     * @param defaultValue The value returned if it is not defined.
+     * @return Returns the value, or the default value if it is not defined.
+     */
+    public String getString(String key, String defaultValue) {
+        String value = getString(key);
+
+        return value == null ? defaultValue : value;
+    }
+
+    /** Give an integer value.
+     * @since 1.0
+     * @param key The key of the value.
+     * @param defaultValue The value returned if it is not defined or is not an integer.
+     * @return Returns the value, or the default value.
+     */
+    public int getInt(String key, int defaultValue) {
+        String value = getString(key);
+
+        if (value == null)
+            return defaultValue;
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException exception) {
+            return defaultValue;
+        }
+    }
+
+    /** Give a long value.
+     * @since 1.0
+     * @param key The key of the value.
+     * @param defaultValue The value returned if it is not defined or is not a long.
+     * @return Returns the value, or the default value.
+     */
+    public long getLong(String key, long defaultValue) {
+        String value = getString(key);
+
+        if (value == null)
+            return defaultValue;
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException exception) {
+            return defaultValue;
+        }
+    }
+
+    /** Give a boolean value.
+     * @since 1.0
+     * @param key The key of the value.
+     * @param defaultValue The value returned if it is not defined.
+     * @return Returns the value, or the default value.
+     */
+    public boolean getBoolean(String key, boolean defaultValue) {
+        String value = getString(key);
+
+        return value == null ? defaultValue : Boolean.parseBoolean(value);
+    }
+
+    /** Define a value. It is written to the disk with the next flush of the store.
+     * @since 1.0
+     * @param key The key of the value.
+     * @param value The value (Converted with {@link String#valueOf(Object)}), or null to remove it.
+     */
+    public void set(String key, Object value) {
+        String string;
+
+        if (key == null)
+            return;
+        if (value == null) {
+            remove(key);
+            return;
+        }
+        string = String.valueOf(value);
+        if (!string.equals(this.values.put(key, string)))
+            this.modifications.incrementAndGet();
+    }
+
+    /** Remove a value.
+     * @since 1.0
+     * @param key The key of the value.
+     * @return Returns true if the value was defined, otherwise returns false.
+     */
+    public boolean remove(String key) {
+        if (key == null || this.values.remove(key) == null)
+            return false;
+        this.modifications.incrementAndGet();
+        return true;
+    }
+
+    /** Remove all the values.
+     * @since 1.0
+     */
+    public void clear() {
+        if (this.values.isEmpty())
+            return;
+        this.values.clear();
+        this.modifications.incrementAndGet();
+    }
+
+    /** Give the keys of the defined values.
+     * @since 1.0
+     * @return Returns an unmodifiable view of the keys.
+     */
+    public Set<String> getKeys() {
+        return Collections.unmodifiableSet(this.values.keySet());
+    }
+
+    /** Check if some changes are not written to the disk yet.
+     * @since 1.0
+     * @return Returns true if the state has unwritten changes, otherwise returns false.
+     */
+    public boolean isDirty() {
+        return this.writable && this.modifications.get() != this.savedModifications;
+    }
+
+    /** Give the number of changes made to the values, before taking a copy of them to write.
+     * @since 1.0
+     * @return Returns the number of changes.
+     */
+    int getModifications() {
+        return this.modifications.get();
+    }
+
+    /** Mark the changes as written to the disk, up to a number of changes.
+     * @since 1.0
+     * @param modifications The number of changes given before taking the written copy.
+     */
+    void setSaved(int modifications) {
+        this.savedModifications = modifications;
+    }
+
+    /** Give a copy of the values, to write them.
+     * @since 1.0
+     * @return Returns the copy.
+     */
+    Map<String, String> copyValues() {
+        return new TreeMap<>(this.values);
+    }
+
+    @Override
+    public String toString() {
+        return "PlayerState{" + this.playerId + ", " + this.values + "}";
+    }
+}
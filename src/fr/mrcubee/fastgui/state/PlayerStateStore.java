@@ -0,0 +1,386 @@
+package fr.mrcubee.fastgui.state;
+
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+
+/** This class keeps the states of the players in memory and writes them to a directory in the background (One properties file per player).
+ * The state of a player is loaded in the background when he joins (See {@link fr.mrcubee.fastgui.inventory.FastInventoryManager#setStateStore(PlayerStateStore)}),
+ * by a loading thread which never waits for the writes. A menu opened before the end of the loading is rendered without the state, then again once it is loaded.
+ * The changed states are written together by a writing thread, every flush interval and when their players close a menu or leave.
+ * @author MrCubee
+ * @Contributor Lightnew
+ * @version 1.0
+ * @since 1.0
+ */
+public class PlayerStateStore {
+
+    /**
+     * The extension of the state files.
+     */
+    private static final String EXTENSION = ".properties";
+
+    /**
+     * The plugin which owns the store.
+     */
+    private final Plugin plugin;
+
+    /**
+     * The directory containing the state files.
+     */
+    private final File directory;
+
+    /**
+     * The loaded states by player.
+     */
+    private final Map<UUID, PlayerState> states;
+
+    /**
+     * The loadings of the states started in the background, by player.
+     */
+    private final Map<UUID, CompletableFuture<Void>> loadings;
+
+    /**
+     * The thread loading the states.
+     */
+    private final ExecutorService loader;
+
+    /**
+     * The thread writing the states.
+     */
+    private final ScheduledExecutorService writer;
+
+    /**
+     * True while a flush is waiting to be executed by the writer.
+     */
+    private final AtomicBoolean flushQueued;
+
+    /**
+     * The periodic flush of the changed states.
+     */
+    private ScheduledFuture<?> flushTask;
+
+    /**
+     * The interval between two periodic flushes, in milliseconds.
+     */
+    private long flushInterval;
+
+    /**
+     * True once the store is closed.
+     */
+    private volatile boolean closed;
+
+    /** Create a store flushing the changed states every 30 seconds.
+     * @since 1.0
+     * @param plugin The plugin which owns the store.
+     * @param directory The directory containing the state files.
+     */
+    public PlayerStateStore(Plugin plugin, File directory) {
+        this.plugin = plugin;
+        this.directory = directory;
+        this.states = new ConcurrentHashMap<>();
+        this.loadings = new ConcurrentHashMap<>();
+        this.loader = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "FastGUI State Loader (" + plugin.getName() + ")");
+
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "FastGUI State Store (" + plugin.getName() + ")");
+
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.flushQueued = new AtomicBoolean();
+        this.flushTask = null;
+        this.closed = false;
+        setFlushInterval(30000L);
+    }
+
+    /** Define the interval between two periodic flushes, which bounds the changes lost if the server crashes.
+     * @since 1.0
+     * @param flushInterval The interval in milliseconds (At least 100).
+     */
+    public synchronized void setFlushInterval(long flushInterval) {
+        if (this.closed)
+            return;
+        this.flushInterval = Math.max(100L, flushInterval);
+        if (this.flushTask != null)
+            this.flushTask.cancel(false);
+        this.flushTask = this.writer.scheduleWithFixedDelay(this::flush, this.flushInterval, this.flushInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /** Give the interval between two periodic flushes.
+     * @since 1.0
+     * @return Returns the interval in milliseconds.
+     */
+    public synchronized long getFlushInterval() {
+        return this.flushInterval;
+    }
+
+    /** Give the state of a player. If its loading in the background is not finished, waits for it.
+     * If the loading was not started (See {@link #preload(UUID)}), the state is loaded from its file on the calling thread.
+     * Once loaded, the state is read from memory until the player leaves.
+     * As it can wait for the disk, the main thread should use {@link #getLoadedState(UUID)} instead.
+     * @since 1.0
+     * @param playerId The unique id of the player.
+     * @return Returns the state, or null if the player id is null.
+     */
+    public PlayerState getState(UUID playerId) {
+        PlayerState state;
+        CompletableFuture<Void> loading;
+
+        if (playerId == null)
+            return null;
+        state = this.states.get(playerId);
+        if (state != null && !state.unloaded)
+            return state;
+        loading = this.loadings.get(playerId);
+        if (loading != null)
+            loading.join();
+        return loadState(playerId);
+    }
+
+    /** Give the state of a player if it is in memory, without ever loading it.
+     * @since 1.0
+     * @param playerId The unique id of the player.
+     * @return Returns the state, or null if it is not loaded or the player has left.
+     */
+    public PlayerState getLoadedState(UUID playerId) {
+        PlayerState state = playerId == null ? null : this.states.get(playerId);
+
+        return state != null && !state.unloaded ? state : null;
+    }
+
+    /** Start loading the state of a player in the background, so that it is in memory when he opens a menu.
+     * @since 1.0
+     * @param playerId The unique id of the player.
+     * @return Returns the loading, completed once the state is in memory (At once if it is already loaded or the store is closed).
+     */
+    public CompletableFuture<Void> preload(UUID playerId) {
+        CompletableFuture<Void> loading;
+        CompletableFuture<Void> pending;
+
+        if (playerId == null || this.closed || isLoaded(playerId))
+            return CompletableFuture.completedFuture(null);
+        loading = new CompletableFuture<>();
+        pending = this.loadings.putIfAbsent(playerId, loading);
+        if (pending != null)
+            return pending;
+        try {
+            this.loader.execute(() -> {
+                try {
+                    loadState(playerId);
+                } finally {
+                    this.loadings.remove(playerId, loading);
+                    loading.complete(null);
+                }
+            });
+        } catch (RejectedExecutionException exception) {
+            this.loadings.remove(playerId, loading);
+            loading.complete(null);
+        }
+        return loading;
+    }
+
+    /** Give the state of a player, loading it from its file if it is not in memory.
+     * @since 1.0
+     * @param playerId The unique id of the player.
+     * @return Returns the state.
+     */
+    private PlayerState loadState(UUID playerId) {
+        return this.states.compute(playerId, (id, loaded) -> {
+            if (loaded == null)
+                loaded = load(id);
+            loaded.unloaded = false;
+            return loaded;
+        });
+    }
+
+    /** Check if the state of a player is in memory.
+     * @since 1.0
+     * @param playerId The unique id of the player.
+     * @return Returns true if the state is loaded, otherwise returns false.
+     */
+    public boolean isLoaded(UUID playerId) {
+        return getLoadedState(playerId) != null;
+    }
+
+    /** Write the state of a player soon, with the other changed states, if it has changed.
+     * @since 1.0
+     * @param playerId The unique id of the player.
+     */
+    public void save(UUID playerId) {
+        PlayerState state = playerId == null ? null : this.states.get(playerId);
+
+        if (state != null && state.isDirty())
+            requestFlush();
+    }
+
+    /** Drop the state of a player leaving the server, once its changes are written.
+     * @since 1.0
+     * @param playerId The unique id of the player.
+     */
+    public void unload(UUID playerId) {
+        PlayerState state = playerId == null ? null : this.states.get(playerId);
+
+        if (state == null)
+            return;
+        state.unloaded = true;
+        requestFlush();
+    }
+
+    /** Ask the writer to flush the changed states, unless a flush is already waiting.
+     * @since 1.0
+     */
+    public void requestFlush() {
+        if (this.closed || !this.flushQueued.compareAndSet(false, true))
+            return;
+        try {
+            this.writer.execute(this::flush);
+        } catch (RuntimeException exception) {
+            this.flushQueued.set(false);
+        }
+    }
+
+    /**
+     * Write the changed states and drop the states of the players who left (Writer thread only).
+     */
+    private void flush() {
+        this.flushQueued.set(false);
+        for (PlayerState state : this.states.values()) {
+            if (state.isDirty())
+                write(state);
+            if (state.unloaded)
+                this.states.computeIfPresent(state.getPlayerId(), (id, loaded) -> loaded.unloaded && !loaded.isDirty() ? null : loaded);
+        }
+    }
+
+    /** Give the file of the state of a player.
+     * @since 1.0
+     * @param playerId The unique id of the player.
+     * @return Returns the path of the file.
+     */
+    private Path getFile(UUID playerId) {
+        return this.directory.toPath().resolve(playerId + EXTENSION);
+    }
+
+    /** Read the state of a player from its file.
+     * @since 1.0
+     * @param playerId The unique id of the player.
+     * @return Returns the state, empty if the player has no file yet.
+     */
+    private PlayerState load(UUID playerId) {
+        Path file = getFile(playerId);
+        Properties properties = new Properties();
+        Map<String, String> values;
+
+        if (!Files.isRegularFile(file))
+            return new PlayerState(playerId, Collections.emptyMap(), true);
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException | IllegalArgumentException exception) {
+            this.plugin.getLogger().log(Level.WARNING, "FastGUI can't load the state of the player " + playerId + ", it won't be saved.", exception);
+            return new PlayerState(playerId, Collections.emptyMap(), false);
+        }
+        values = new HashMap<>();
+        for (String key : properties.stringPropertyNames())
+            values.put(key, properties.getProperty(key));
+        return new PlayerState(playerId, values, true);
+    }
+
+    /** Write the state of a player into its file, replacing it at once (Writer thread only).
+     * @since 1.0
+     * @param state The state.
+     */
+    private void write(PlayerState state) {
+        int modifications = state.getModifications();
+        Map<String, String> values = state.copyValues();
+        Properties properties = new Properties();
+        Path file = getFile(state.getPlayerId());
+        Path temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+
+        try {
+            if (values.isEmpty()) {
+                Files.deleteIfExists(file);
+            } else {
+                properties.putAll(values);
+                Files.createDirectories(this.directory.toPath());
+                try (Writer writer = Files.newBufferedWriter(temporaryFile, StandardCharsets.UTF_8)) {
+                    properties.store(writer, null);
+                }
+                try {
+                    Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException exception) {
+                    Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            state.setSaved(modifications);
+        } catch (IOException exception) {
+            this.plugin.getLogger().log(Level.WARNING, "FastGUI can't save the state of the player " + state.getPlayerId() + ".", exception);
+        }
+    }
+
+    /** Write the changed states and stop the loader and the writer, waiting for the writer up to 10 seconds.
+     * @since 1.0
+     */
+    public void close() {
+        synchronized (this) {
+            if (this.closed)
+                return;
+            this.closed = true;
+            if (this.flushTask != null)
+                this.flushTask.cancel(false);
+            this.flushTask = null;
+        }
+        this.loader.shutdown();
+        this.writer.execute(this::flush);
+        this.writer.shutdown();
+        try {
+            if (!this.writer.awaitTermination(10, TimeUnit.SECONDS))
+                this.plugin.getLogger().warning("FastGUI can't save the states of the players in time.");
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Check if the store is closed.
+     * @since 1.0
+     * @return Returns true if the store is closed, otherwise returns false.
+     */
+    public boolean isClosed() {
+        return this.closed;
+    }
+
+    /** Give the directory containing the state files.
+     * @since 1.0
+     * @return Returns the directory.
+     */
+    public File getDirectory() {
+        return this.directory;
+    }
+}
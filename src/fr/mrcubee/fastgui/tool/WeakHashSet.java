@@ -5,6 +5,7 @@ import java.util.Collection;
 import java.util.Iterator;
 import java.util.Set;
 import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.WeakHashMap;
 
 public class WeakHashSet<T> extends AbstractSet<T> implements Set<T>, Cloneable {
@@ -67,6 +68,6 @@ public class WeakHashSet<T> extends AbstractSet<T> implements Set<T>, Cloneable
     }
 
     public Spliterator<T> spliterator() {
-        throw new UnsupportedOperationException();
+        return Spliterators.spliterator(this, Spliterator.DISTINCT);
     }
 }